@@ -32,4 +32,7 @@ public class ApplicantCreatedEvent {
     
     // Education for matching
     private String highestEducationDegree;
+
+    // Increases with every profile save, so consumers can drop events that arrive out of order
+    private Long eventVersion;
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.Locale;
+
 @Component
 @RequiredArgsConstructor
 public class ApplicantKafkaProducer {
@@ -15,7 +17,31 @@ public class ApplicantKafkaProducer {
     @Value("${kafka.topic.applicant-profile:applicant.profile}")
     private String applicantProfileTopic;
 
+    // Must match the notification service's matching.sharding.enabled
+    @Value("${kafka.applicant-profile.key-by-country:false}")
+    private boolean keyByCountry;
+
+    /**
+     * Keyed by applicantId, so one applicant's events stay in order and applicants spread
+     * over all partitions. With sharded matching, keyed by country instead: a country's
+     * partition is hot in proportion to its applicants, and an applicant who moves country
+     * continues on another partition (the notification service orders held events by
+     * {@code eventVersion}).
+     */
     public void publish(ApplicantCreatedEvent event) {
-        kafkaTemplate.send(applicantProfileTopic, event);
+        String key = keyByCountry ? shardKey(event.getCountry()) : event.getApplicantId();
+        kafkaTemplate.send(applicantProfileTopic, key, event);
+    }
+
+    /**
+     * All applicants of one country land on the same partition, and the notification
+     * instance owning it holds that country's search profiles. Must stay in line with the
+     * notification service's country normalization.
+     */
+    static String shardKey(String country) {
+        if (country == null || country.isBlank()) {
+            return null;
+        }
+        return country.trim().toLowerCase(Locale.ROOT);
     }
-}
\ No newline at end of file
+}
@@ -12,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.UUID;
 
 @Service
@@ -68,6 +69,7 @@ public class ApplicantService {
         event.setExpectedSalaryMin(request.getExpectedSalaryMin());
         event.setExpectedSalaryMax(request.getExpectedSalaryMax());
         event.setHighestEducationDegree(request.getHighestEducationDegree());
+        event.setEventVersion(applicant.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
 
         producer.publish(event);
         log.info("Published ApplicantCreatedEvent to Kafka: {}", applicantId);
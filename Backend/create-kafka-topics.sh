@@ -45,6 +45,32 @@ for topic in "${topics[@]}"; do
     echo "----------------------------------------"
 done
 
+# Compacted topics: only the latest record per key is retained
+compacted_topics=(
+    "company-search-profiles"
+)
+
+for topic in "${compacted_topics[@]}"; do
+    echo "Creating compacted topic: $topic"
+    docker run --rm \
+        confluentinc/cp-kafka:latest \
+        kafka-topics \
+        --bootstrap-server $BOOTSTRAP_SERVERS \
+        --create \
+        --topic $topic \
+        --replication-factor $REPLICATION_FACTOR \
+        --partitions $PARTITIONS \
+        --config cleanup.policy=compact \
+        --if-not-exists
+
+    if [ $? -eq 0 ]; then
+        echo "✓ Topic '$topic' created successfully"
+    else
+        echo "✗ Failed to create topic '$topic'"
+    fi
+    echo "----------------------------------------"
+done
+
 echo ""
 echo "Listing all topics:"
 docker run --rm \
@@ -0,0 +1,139 @@
+package com.job.manager.notification.matching.benchmark;
+
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import com.job.manager.notification.matching.dto.CompanySearchProfileDto;
+import com.job.manager.notification.matching.model.EducationDegree;
+import com.job.manager.notification.matching.model.EmploymentStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic synthetic profiles and applicants for the matching benchmarks.
+ * Countries and tags follow a Zipf distribution, so a few (e.g. "VN", "java") are
+ * very common and most are rare, as in production data.
+ */
+final class MatchingDataGenerator {
+
+    private static final String[] COUNTRIES = {
+            "VN", "US", "SG", "AU", "JP", "KR", "DE", "GB", "FR", "IN",
+            "TH", "MY", "ID", "PH", "CN", "CA", "NL", "SE", "NZ", "BR",
+            "ES", "IT", "PL", "CH", "IE", "DK", "FI", "NO", "AT", "BE"
+    };
+
+    private static final String[] TAGS = buildTags();
+
+    private final Random random;
+    private final ZipfSampler countrySampler;
+    private final ZipfSampler tagSampler;
+
+    MatchingDataGenerator(long seed) {
+        this.random = new Random(seed);
+        this.countrySampler = new ZipfSampler(COUNTRIES.length, 1.1);
+        this.tagSampler = new ZipfSampler(TAGS.length, 1.0);
+    }
+
+    List<CompanySearchProfileDto> profiles(int count) {
+        List<CompanySearchProfileDto> profiles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CompanySearchProfileDto profile = new CompanySearchProfileDto();
+            profile.setCompanyId("company-" + i);
+            profile.setCountry(COUNTRIES[countrySampler.next(random)]);
+            profile.setTechnicalTags(new ArrayList<>(tags(1 + random.nextInt(6))));
+            profile.setEmploymentStatus(random.nextInt(3) == 0 ? Set.of() : employmentStatuses());
+            profile.setHighestEducationDegree(random.nextInt(2) == 0 ? null : degree());
+            if (random.nextInt(4) != 0) {
+                int min = 500 + random.nextInt(40) * 100;
+                profile.setSalaryMin(BigDecimal.valueOf(min));
+                profile.setSalaryMax(random.nextInt(5) == 0 ? null : BigDecimal.valueOf(min + 500 + random.nextInt(30) * 100));
+            }
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+
+    List<ApplicantCreatedEvent> applicants(int count) {
+        List<ApplicantCreatedEvent> applicants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ApplicantCreatedEvent applicant = new ApplicantCreatedEvent();
+            applicant.setApplicantId("applicant-" + i);
+            applicant.setFullName("Applicant " + i);
+            applicant.setCountry(COUNTRIES[countrySampler.next(random)]);
+            applicant.setSkills(new ArrayList<>(tags(2 + random.nextInt(9))));
+            applicant.setEmploymentTypes(employmentStatuses());
+            applicant.setHighestEducationDegree(degree());
+            if (random.nextInt(3) != 0) {
+                int min = 500 + random.nextInt(50) * 100;
+                applicant.setMinSalary(BigDecimal.valueOf(min));
+                applicant.setMaxSalary(BigDecimal.valueOf(min + random.nextInt(20) * 100));
+            }
+            applicants.add(applicant);
+        }
+        return applicants;
+    }
+
+    private Set<String> tags(int count) {
+        Set<String> tags = new LinkedHashSet<>();
+        while (tags.size() < count) {
+            tags.add(TAGS[tagSampler.next(random)]);
+        }
+        return tags;
+    }
+
+    private Set<String> employmentStatuses() {
+        EmploymentStatus[] values = EmploymentStatus.values();
+        Set<String> statuses = new HashSet<>();
+        int count = 1 + random.nextInt(2);
+        while (statuses.size() < count) {
+            statuses.add(values[random.nextInt(values.length)].name());
+        }
+        return statuses;
+    }
+
+    private String degree() {
+        EducationDegree[] values = EducationDegree.values();
+        return values[random.nextInt(values.length)].name();
+    }
+
+    private static String[] buildTags() {
+        List<String> tags = new ArrayList<>(Arrays.asList(
+                "java", "javascript", "python", "react", "spring", "sql", "aws", "docker",
+                "typescript", "kubernetes", "go", "c#", "node", "angular", "kotlin", "php"));
+        for (int i = tags.size(); i < 500; i++) {
+            tags.add("tag-" + i);
+        }
+        return tags.toArray(new String[0]);
+    }
+
+    /**
+     * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent.
+     */
+    private static final class ZipfSampler {
+
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int next(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            int rank = index >= 0 ? index : -index - 1;
+            return Math.min(rank, cumulative.length - 1);
+        }
+    }
+}
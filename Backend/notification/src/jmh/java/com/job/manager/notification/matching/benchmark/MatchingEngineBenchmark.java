@@ -0,0 +1,69 @@
+package com.job.manager.notification.matching.benchmark;
+
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import com.job.manager.notification.matching.dto.CompanySearchProfileDto;
+import com.job.manager.notification.matching.index.SearchProfileIndex;
+import com.job.manager.notification.matching.index.SkillCanonicalizer;
+import com.job.manager.notification.matching.index.TagDictionary;
+import com.job.manager.notification.matching.service.MatchingEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-applicant matching cost of the brute-force engine versus the indexed engine.
+ * Throughput gives ops/sec, SampleTime gives the latency distribution (p99),
+ * and the gc profiler configured in build.gradle reports the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MatchingEngineBenchmark {
+
+    private static final int APPLICANT_COUNT = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int profileCount;
+
+    private MatchingEngine matchingEngine;
+    private SearchProfileIndex index;
+    private List<CompanySearchProfileDto> profiles;
+    private List<ApplicantCreatedEvent> applicants;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MatchingDataGenerator generator = new MatchingDataGenerator(42L);
+        profiles = generator.profiles(profileCount);
+        applicants = generator.applicants(APPLICANT_COUNT);
+
+        matchingEngine = new MatchingEngine(new SkillCanonicalizer());
+        index = new SearchProfileIndex(new TagDictionary());
+        index.rebuild(profiles);
+    }
+
+    private ApplicantCreatedEvent nextApplicant() {
+        ApplicantCreatedEvent applicant = applicants.get(next);
+        next = (next + 1) % APPLICANT_COUNT;
+        return applicant;
+    }
+
+    @Benchmark
+    public List<String> bruteForce() {
+        return matchingEngine.findMatchingCompanyIds(nextApplicant(), profiles);
+    }
+
+    @Benchmark
+    public List<String> indexed() {
+        return matchingEngine.findMatchingCompanyIds(nextApplicant(), index);
+    }
+}
@@ -0,0 +1,44 @@
+package com.job.manager.notification.matching.benchmark;
+
+import com.job.manager.notification.matching.dto.CompanySearchProfileDto;
+import com.job.manager.notification.matching.index.SearchProfileIndex;
+import com.job.manager.notification.matching.index.TagDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a full index rebuild, i.e. what every replica flush pays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SearchProfileIndexBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int profileCount;
+
+    private List<CompanySearchProfileDto> profiles;
+    private SearchProfileIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        profiles = new MatchingDataGenerator(42L).profiles(profileCount);
+        index = new SearchProfileIndex(new TagDictionary());
+    }
+
+    @Benchmark
+    public SearchProfileIndex rebuild() {
+        index.rebuild(profiles);
+        return index;
+    }
+}
@@ -2,17 +2,29 @@ package com.job.manager.notification.client;
 
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Fallback for the {@link CompanyEmailDirectory}; use the directory instead of calling this directly.
+ */
 @Component
 public class CompanyEmailClient {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
 
     @Value("${services.authentication.base-url}")
     private String authBaseUrl; // http://localhost:8000/auth
 
+    public CompanyEmailClient(@Value("${services.authentication.timeout-ms:2000}") int timeoutMs) {
+        // Bounded so a slow authentication service cannot stall the email senders
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
     public String getCompanyEmail(String companyId) {
         String url = authBaseUrl + "/users/" + companyId;
         UserDto user = restTemplate.getForObject(url, UserDto.class);
@@ -0,0 +1,83 @@
+package com.job.manager.notification.client;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Local companyId -> email directory, filled from the company-registration topic and
+ * bounded to {@code notification.email-directory.max-entries} least recently used
+ * companies. Entries older than {@code ttl-ms} are refreshed through
+ * {@link CompanyEmailClient}, which is otherwise only called on a miss. If that call
+ * fails, an expired entry is still used, so email keeps flowing while the
+ * authentication service is slow or down.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CompanyEmailDirectory {
+
+    private final CompanyEmailClient companyEmailClient;
+
+    @Value("${notification.email-directory.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${notification.email-directory.ttl-ms:86400000}")
+    private long ttlMs;
+
+    private record Entry(String email, long expiresAt) {
+    }
+
+    // Access-ordered, so the eldest entry is the least recently used one
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public void put(String companyId, String email) {
+        if (companyId == null || email == null || email.isBlank()) {
+            return;
+        }
+        Entry entry = new Entry(email, System.currentTimeMillis() + ttlMs);
+        synchronized (entries) {
+            entries.put(companyId, entry);
+        }
+    }
+
+    /**
+     * @return The company's email, from the directory when fresh, otherwise over HTTP
+     */
+    public String getCompanyEmail(String companyId) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(companyId);
+        }
+        if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+            return entry.email();
+        }
+
+        try {
+            String email = companyEmailClient.getCompanyEmail(companyId);
+            put(companyId, email);
+            return email;
+        } catch (RuntimeException e) {
+            if (entry == null) {
+                throw e;
+            }
+            log.warn("Refreshing email of company {} failed, using the cached one: {}", companyId, e.getMessage());
+            return entry.email();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -1,18 +1,31 @@
 package com.job.manager.notification.config;
 
 import com.job.manager.notification.dto.ApplicantMatchedEvent;
+import com.job.manager.notification.dto.CompanyRegisteredEvent;
 import com.job.manager.notification.dto.SubscriptionEventDTO;
 import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import com.job.manager.notification.matching.dto.SearchProfileChangedEvent;
+import com.job.manager.notification.matching.kafka.MatchingShardRebalanceListener;
+import com.job.manager.notification.matching.kafka.SearchProfileReplayTracker;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.TopicConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -23,11 +36,60 @@ public class KafkaConfig {
     @Value("${KAFKA_BOOTSTRAP_SERVER:localhost:29092}")
     String bootstrapServers;
 
+    // Offline replay runs must not consume or notify live
+    @Value("${matching.replay.enabled:false}")
+    boolean replayMode;
+
+    // Stable per instance, so restarts reuse this instance's consumer groups instead of orphaning them
+    @Value("${notification.instance-id:${HOSTNAME:notification}}")
+    String instanceId;
+
+    /**
+     * Matching publishes to applicant-matched and waits for the acknowledgement before
+     * marking a match processed, so sends are idempotent and acknowledged by all replicas.
+     */
+    @Bean
+    public ProducerFactory<String, ApplicantMatchedEvent> matchedProducerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, ApplicantMatchedEvent> matchedKafkaTemplate() {
+        return new KafkaTemplate<>(matchedProducerFactory());
+    }
+
+    // Keyed by companyId: the partition count bounds the delivery consumers that can run in parallel
+    @Bean
+    public NewTopic applicantMatchedTopic(
+            @Value("${kafka.topic.applicant-matched:applicant-matched}") String topic,
+            @Value("${matching.delivery.partitions:6}") int partitions,
+            @Value("${matching.delivery.replicas:1}") int replicas,
+            @Value("${matching.delivery.min-insync-replicas:1}") int minInsyncReplicas) {
+        // The producer sends with acks=all, which only survives a broker loss with replicas > 1
+        return TopicBuilder.name(topic)
+                .partitions(partitions)
+                .replicas(replicas)
+                .config(TopicConfig.MIN_IN_SYNC_REPLICAS_CONFIG, String.valueOf(minInsyncReplicas))
+                .build();
+    }
+
+    /**
+     * Delivery stage consumer, in its own group so it scales apart from matching.
+     */
     @Bean
     public ConsumerFactory<String, ApplicantMatchedEvent> matchedConsumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-group");
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-delivery-group");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
         props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
@@ -39,12 +101,24 @@ public class KafkaConfig {
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
+    /**
+     * Batch container: each listener call delivers up to {@code matching.delivery.max-poll-records}
+     * matches, persisted with one bulk write.
+     */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, ApplicantMatchedEvent>
-    matchedKafkaListenerContainerFactory() {
+    matchedKafkaListenerContainerFactory(
+            @Value("${matching.delivery.max-poll-records:200}") int maxPollRecords,
+            @Value("${matching.delivery.concurrency:1}") int concurrency) {
+        Map<String, Object> props = new HashMap<>(matchedConsumerFactory().getConfigurationProperties());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
         ConcurrentKafkaListenerContainerFactory<String, ApplicantMatchedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(matchedConsumerFactory());
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.setAutoStartup(!replayMode);
         return factory;
     }
 
@@ -66,18 +140,112 @@ public class KafkaConfig {
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, ApplicantCreatedEvent>
-    applicantProfileKafkaListenerContainerFactory() {
+    applicantProfileKafkaListenerContainerFactory(MatchingShardRebalanceListener matchingShardRebalanceListener) {
         ConcurrentKafkaListenerContainerFactory<String, ApplicantCreatedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(applicantProfileConsumerFactory());
+        factory.getContainerProperties().setConsumerRebalanceListener(matchingShardRebalanceListener);
+        factory.setAutoStartup(!replayMode);
+        return factory;
+    }
+
+    /**
+     * Batch variant of the applicant-profile container: each listener call receives
+     * up to {@code matching.batch.max-poll-records} events from a single poll.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ApplicantCreatedEvent>
+    applicantProfileBatchKafkaListenerContainerFactory(
+            @Value("${matching.batch.max-poll-records:500}") int maxPollRecords,
+            MatchingShardRebalanceListener matchingShardRebalanceListener) {
+        Map<String, Object> props = new HashMap<>(applicantProfileConsumerFactory().getConfigurationProperties());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        ConcurrentKafkaListenerContainerFactory<String, ApplicantCreatedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setConsumerRebalanceListener(matchingShardRebalanceListener);
+        factory.setAutoStartup(!replayMode);
+        return factory;
+    }
+
+    /**
+     * Every instance keeps a full replica of the search profiles, so each one
+     * gets its own consumer group and replays the compacted topic from the start
+     * (see {@code SearchProfileChangeKafkaListener#onPartitionsAssigned}).
+     */
+    @Bean
+    public ConsumerFactory<String, SearchProfileChangedEvent> searchProfileConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-profile-replica-" + instanceId);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, SearchProfileChangedEvent.class.getName());
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.job.manager.*");
+        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, SearchProfileChangedEvent>
+    searchProfileKafkaListenerContainerFactory(SearchProfileReplayTracker searchProfileReplayTracker) {
+        ConcurrentKafkaListenerContainerFactory<String, SearchProfileChangedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(searchProfileConsumerFactory());
+        factory.getContainerProperties().setConsumerRebalanceListener(searchProfileReplayTracker);
+        factory.setAutoStartup(!replayMode);
+        return factory;
+    }
+
+    /**
+     * Like the search profile replica, every instance keeps its own email directory in a
+     * group of its own. The directory is in memory, so the listener reads all
+     * registrations from the start on every assignment.
+     */
+    @Bean
+    public ConsumerFactory<String, CompanyRegisteredEvent> companyRegistrationConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-email-directory-" + instanceId);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, CompanyRegisteredEvent.class.getName());
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.job.manager.*");
+        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, CompanyRegisteredEvent>
+    companyRegistrationKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, CompanyRegisteredEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(companyRegistrationConsumerFactory());
+        factory.setAutoStartup(!replayMode);
         return factory;
     }
 
+    /**
+     * Every instance tracks which companies are premium-active in memory, so each one
+     * needs every subscription event and gets a group of its own.
+     */
     @Bean
     public ConsumerFactory<String, SubscriptionEventDTO> subscriptionConsumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-group");
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-subscription-status-" + instanceId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
         props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
@@ -95,6 +263,7 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, SubscriptionEventDTO> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(subscriptionConsumerFactory());
+        factory.setAutoStartup(!replayMode);
         return factory;
     }
 }
\ No newline at end of file
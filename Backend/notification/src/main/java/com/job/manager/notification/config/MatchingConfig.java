@@ -0,0 +1,22 @@
+package com.job.manager.notification.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class MatchingConfig {
+
+    /**
+     * Bounded pool for matching applicant batches in parallel, kept apart from the
+     * common pool so matching cannot starve other parallel work in the JVM.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool matchingPool(
+            @Value("${matching.batch.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(threads);
+    }
+}
@@ -1,15 +1,21 @@
 package com.job.manager.notification.config;
 
+import com.job.manager.notification.websocket.SlowConsumerPolicy;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final SlowConsumerPolicy slowConsumerPolicy;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple in-memory message broker
@@ -29,4 +35,13 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws/notifications")
                 .setAllowedOriginPatterns("*");
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Per-session queueing, collapsing and time limits happen in SlowConsumerPolicy;
+        // Spring's own send buffer sits behind it and never fills
+        registration.setSendTimeLimit(slowConsumerPolicy.sendTimeLimitMs())
+                .setSendBufferSizeLimit(slowConsumerPolicy.sendBufferSizeLimit())
+                .addDecoratorFactory(slowConsumerPolicy::decorate);
+    }
 }
@@ -8,4 +8,6 @@ public class ApplicantMatchedEvent {
     private String companyId;
     private String applicantId;
     private String applicantName;
-}
\ No newline at end of file
+    private Double score; // relevance in [0, 1], null when not ranked
+    private String eventVersion; // version of the applicant event that matched, see ProcessedMatchStore
+}
@@ -0,0 +1,14 @@
+package com.job.manager.notification.dto;
+
+import lombok.Data;
+
+/**
+ * The fields of the authentication service's company-registration event that the
+ * notification service needs; everything else in the payload is ignored.
+ */
+@Data
+public class CompanyRegisteredEvent {
+
+    private String companyId;
+    private String email;
+}
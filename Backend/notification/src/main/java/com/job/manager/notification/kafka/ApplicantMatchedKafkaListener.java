@@ -0,0 +1,59 @@
+package com.job.manager.notification.kafka;
+
+import com.job.manager.notification.dto.ApplicantMatchedEvent;
+import com.job.manager.notification.matching.service.MatchDigestService;
+import com.job.manager.notification.service.CompanyRateLimiter;
+import com.job.manager.notification.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Delivery stage: persists, pushes and emails the matches published by the matching
+ * stage. Runs in its own consumer group, so it is scaled and tuned independently.
+ * In digest mode matches are held per company and delivered by the {@link MatchDigestService};
+ * otherwise only matches of companies over their {@link CompanyRateLimiter} limit are.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicantMatchedKafkaListener {
+
+    private final NotificationService notificationService;
+    private final MatchDigestService matchDigestService;
+    private final CompanyRateLimiter companyRateLimiter;
+
+    @Value("${notification.digest.enabled:false}")
+    private boolean digestMode;
+
+    @KafkaListener(
+            topics = "${kafka.topic.applicant-matched:applicant-matched}",
+            containerFactory = "matchedKafkaListenerContainerFactory"
+    )
+    public void onApplicantsMatched(List<ApplicantMatchedEvent> events) {
+        // Records that failed deserialization arrive as nulls
+        List<ApplicantMatchedEvent> valid = events.stream()
+                .filter(Objects::nonNull)
+                .toList();
+        System.out.println("ApplicantMatchedKafkaListener: received " + events.size()
+                + " match event(s), delivering " + valid.size());
+        if (digestMode) {
+            matchDigestService.accumulate(valid);
+            return;
+        }
+
+        Map<Boolean, List<ApplicantMatchedEvent>> withinLimit = valid.stream()
+                .collect(Collectors.partitioningBy(event -> companyRateLimiter.tryAcquire(event.getCompanyId())));
+        notificationService.handleApplicantMatches(withinLimit.get(true));
+        if (!withinLimit.get(false).isEmpty()) {
+            System.out.println("ApplicantMatchedKafkaListener: " + withinLimit.get(false).size()
+                    + " match event(s) over their company's rate limit, moved to the digest");
+            matchDigestService.accumulate(withinLimit.get(false));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.job.manager.notification.kafka;
+
+import com.job.manager.notification.client.CompanyEmailDirectory;
+import com.job.manager.notification.dto.CompanyRegisteredEvent;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Feeds the {@link CompanyEmailDirectory} from company registrations. The directory is
+ * only in memory, so every assignment replays the topic from the beginning, whatever
+ * this instance's group committed before a restart.
+ */
+@Component
+@RequiredArgsConstructor
+public class CompanyRegistrationKafkaListener implements ConsumerSeekAware {
+
+    private final CompanyEmailDirectory companyEmailDirectory;
+
+    @KafkaListener(
+            topics = "${kafka.topic.company-registration:company-registration}",
+            containerFactory = "companyRegistrationKafkaListenerContainerFactory"
+    )
+    public void onCompanyRegistered(CompanyRegisteredEvent event) {
+        // Registrations through Google sign-in carry no companyId
+        if (event == null || event.getCompanyId() == null) {
+            return;
+        }
+        System.out.println("CompanyRegistrationKafkaListener: email directory updated for company: " + event.getCompanyId());
+        companyEmailDirectory.put(event.getCompanyId(), event.getEmail());
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToBeginning(assignments.keySet());
+    }
+}
@@ -1,16 +1,29 @@
 package com.job.manager.notification.kafka;
 
 import com.job.manager.notification.dto.SubscriptionEventDTO;
+import com.job.manager.notification.matching.service.SearchProfileReplica;
+import com.job.manager.notification.matching.service.SubscriptionStatusTracker;
 import com.job.manager.notification.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import java.util.Locale;
+
+/**
+ * Keeps this instance's {@link SubscriptionStatusTracker} current. The tracker's set of
+ * active companies is in memory, so every instance reads all subscription events in a
+ * consumer group of its own.
+ */
 @Component
 @RequiredArgsConstructor
 public class NotificationKafkaListener {
 
     private final NotificationService notificationService;
+    private final SubscriptionStatusTracker subscriptionStatusTracker;
+    private final SearchProfileReplica searchProfileReplica;
 
     @KafkaListener(
             topics = {
@@ -20,12 +33,17 @@ public class NotificationKafkaListener {
                 "subscription-cancelled",
                 "subscription-expiring-soon"
             },
-            groupId = "notification-group",
             containerFactory = "subscriptionKafkaListenerContainerFactory"
     )
-    public void onSubscriptionEvent(SubscriptionEventDTO event) {
+    public void onSubscriptionEvent(SubscriptionEventDTO event, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
         System.out.println("NotificationKafkaListener: received subscription event: " + event);
-        // You can add logic here to handle different event types if needed
-        // e.g., notificationService.handleSubscriptionEvent(event);
+        // Only expiring-soon events carried a type before, so fall back to the topic name
+        if (event.getEventType() == null && topic.startsWith("subscription-")) {
+            event.setEventType(topic.substring("subscription-".length()).replace('-', '_').toUpperCase(Locale.ROOT));
+        }
+        // Evict or reactivate the company's search profile, and rebuild the index right away
+        if (subscriptionStatusTracker.apply(event)) {
+            searchProfileReplica.flush();
+        }
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import lombok.Data;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 @Data
 public class ApplicantCreatedEvent {
@@ -15,4 +16,7 @@ public class ApplicantCreatedEvent {
     private Boolean employmentStatus;
     private BigDecimal minSalary;
     private BigDecimal maxSalary;
+    private Set<String> employmentTypes;
+    private String highestEducationDegree;
+    private Long eventVersion; // optional, increases with every profile save
 }
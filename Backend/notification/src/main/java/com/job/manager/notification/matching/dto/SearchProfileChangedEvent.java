@@ -0,0 +1,14 @@
+package com.job.manager.notification.matching.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class SearchProfileChangedEvent {
+
+    private String companyId;
+    private String eventType; // "UPSERTED", "DELETED"
+    private CompanySearchProfileDto profile; // null for DELETED
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,20 @@
+package com.job.manager.notification.matching.index;
+
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+
+/**
+ * An applicant event prepared for matching: normalized country, sorted skill ids,
+ * employment types as a bitmask (0 = unknown), degree rank (-1 = unknown) and the
+ * salary range in cents (unset bounds are open).
+ * Skills no profile uses are dropped, since they can never contribute to a match.
+ */
+public record CompiledApplicant(
+        ApplicantCreatedEvent source,
+        String country,
+        int[] skillIds,
+        int employmentMask,
+        int degreeRank,
+        long salaryMin,
+        long salaryMax
+) {
+}
@@ -0,0 +1,23 @@
+package com.job.manager.notification.matching.index;
+
+import com.job.manager.notification.matching.dto.CompanySearchProfileDto;
+
+/**
+ * A search profile prepared for matching: normalized country, sorted tag ids,
+ * accepted employment statuses as a bitmask (0 = any), minimum degree rank (-1 = any)
+ * and the salary range in cents (unset min = 0, unset max = {@code Long.MAX_VALUE}).
+ */
+public record CompiledProfile(
+        CompanySearchProfileDto source,
+        String country,
+        int[] tagIds,
+        int employmentMask,
+        int minDegreeRank,
+        long salaryMin,
+        long salaryMax
+) {
+
+    public String companyId() {
+        return source.getCompanyId();
+    }
+}
@@ -0,0 +1,131 @@
+package com.job.manager.notification.matching.index;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Sorted-endpoint index over the salary ranges of one country's profiles.
+ * A profile overlaps an applicant range {@code [min, max]} when
+ * {@code profile.min <= max} (a prefix of the profiles sorted by min) and
+ * {@code profile.max >= min} (a suffix of the profiles sorted by max), so both sides
+ * can be sized with a binary search and only the smaller one needs to be visited.
+ */
+public final class SalaryIndex {
+
+    /** Salaries are compared as whole cents. */
+    private static final int SCALE = 2;
+
+    private final int[] byMin;
+    private final long[] sortedMins;
+    private final int[] byMax;
+    private final long[] sortedMaxes;
+    private final long[] mins;
+    private final long[] maxes;
+
+    private SalaryIndex(long[] mins, long[] maxes) {
+        this.mins = mins;
+        this.maxes = maxes;
+        this.byMin = sortedPositions(mins);
+        this.sortedMins = Arrays.stream(byMin).mapToLong(i -> mins[i]).toArray();
+        this.byMax = sortedPositions(maxes);
+        this.sortedMaxes = Arrays.stream(byMax).mapToLong(i -> maxes[i]).toArray();
+    }
+
+    static SalaryIndex of(CompiledProfile[] profiles) {
+        long[] mins = new long[profiles.length];
+        long[] maxes = new long[profiles.length];
+        for (int i = 0; i < profiles.length; i++) {
+            mins[i] = profiles[i].salaryMin();
+            maxes[i] = profiles[i].salaryMax();
+        }
+        return new SalaryIndex(mins, maxes);
+    }
+
+    /**
+     * @return Upper bound on the number of profiles overlapping {@code [min, max]}
+     */
+    public int estimate(long min, long max) {
+        return Math.min(countMinAtMost(max), sortedMaxes.length - firstMaxAtLeast(min));
+    }
+
+    /**
+     * Sets the position of every profile whose range overlaps {@code [min, max]},
+     * walking whichever endpoint list is shorter.
+     */
+    public void collect(long min, long max, BitSet out) {
+        int minPrefix = countMinAtMost(max);
+        int maxSuffixStart = firstMaxAtLeast(min);
+        if (minPrefix <= sortedMaxes.length - maxSuffixStart) {
+            for (int i = 0; i < minPrefix; i++) {
+                int position = byMin[i];
+                if (maxes[position] >= min) {
+                    out.set(position);
+                }
+            }
+        } else {
+            for (int i = maxSuffixStart; i < byMax.length; i++) {
+                int position = byMax[i];
+                if (mins[position] <= max) {
+                    out.set(position);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scale a salary to whole cents, or return {@code fallback} when it is not set.
+     * Salaries beyond the range of a long are clamped to its bounds.
+     */
+    public static long scale(BigDecimal salary, long fallback) {
+        if (salary == null) {
+            return fallback;
+        }
+        BigInteger cents = salary.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue();
+        if (cents.bitLength() > 63) {
+            return cents.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        return cents.longValue();
+    }
+
+    private int countMinAtMost(long value) {
+        // first index with sortedMins[i] > value
+        int low = 0;
+        int high = sortedMins.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedMins[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstMaxAtLeast(long value) {
+        int low = 0;
+        int high = sortedMaxes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedMaxes[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int[] sortedPositions(long[] values) {
+        return IntStream.range(0, values.length)
+                .boxed()
+                .sorted(Comparator.comparingLong(i -> values[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}
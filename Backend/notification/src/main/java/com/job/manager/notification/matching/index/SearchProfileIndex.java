@@ -0,0 +1,210 @@
+package com.job.manager.notification.matching.index;
+
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import com.job.manager.notification.matching.dto.CompanySearchProfileDto;
+import com.job.manager.notification.matching.model.EducationDegree;
+import com.job.manager.notification.matching.model.EmploymentStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory inverted index of company search profiles.
+ * Profiles are grouped by normalized country, then posted under each tag id from the
+ * shared {@link TagDictionary}, so an applicant only touches the profiles sharing its
+ * country and at least one skill. Each country also keeps a {@link SalaryIndex}; per
+ * query the most selective of country, tags and salary drives candidate selection.
+ * The index is immutable once built and swapped atomically on every rebuild.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchProfileIndex {
+
+    private final TagDictionary tagDictionary;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Replace the whole index with the given profiles.
+     * @param profiles All company search profiles that should be matchable
+     */
+    public void rebuild(List<CompanySearchProfileDto> profiles) {
+        Map<String, List<CompiledProfile>> byCountry = new HashMap<>();
+        for (CompanySearchProfileDto profile : profiles) {
+            CompiledProfile compiled = compile(profile);
+            if (compiled.country() == null || compiled.tagIds().length == 0) {
+                // Can never match: country and at least one tag are required
+                continue;
+            }
+            byCountry.computeIfAbsent(compiled.country(), c -> new ArrayList<>()).add(compiled);
+        }
+
+        Map<String, CountryBucket> buckets = new HashMap<>();
+        byCountry.forEach((country, list) -> buckets.put(country, CountryBucket.of(list)));
+
+        this.snapshot = new Snapshot(buckets, List.copyOf(profiles));
+        log.info("Search profile index rebuilt: {} profiles across {} countries, {} distinct tags",
+                profiles.size(), buckets.size(), tagDictionary.size());
+    }
+
+    public CompiledProfile compile(CompanySearchProfileDto profile) {
+        return new CompiledProfile(
+                profile,
+                TagDictionary.normalize(profile.getCountry()),
+                tagDictionary.internAll(profile.getTechnicalTags()),
+                EmploymentStatus.mask(profile.getEmploymentStatus()),
+                EducationDegree.rank(profile.getHighestEducationDegree()),
+                SalaryIndex.scale(profile.getSalaryMin(), 0L),
+                SalaryIndex.scale(profile.getSalaryMax(), Long.MAX_VALUE));
+    }
+
+    public CompiledApplicant compile(ApplicantCreatedEvent applicant) {
+        return new CompiledApplicant(
+                applicant,
+                TagDictionary.normalize(applicant.getCountry()),
+                tagDictionary.lookupAll(applicant.getSkills()),
+                EmploymentStatus.mask(applicant.getEmploymentTypes()),
+                EducationDegree.rank(applicant.getHighestEducationDegree()),
+                SalaryIndex.scale(applicant.getMinSalary(), Long.MIN_VALUE),
+                SalaryIndex.scale(applicant.getMaxSalary(), Long.MAX_VALUE));
+    }
+
+    /**
+     * Candidate profiles for an applicant, against the current snapshot.
+     * @see Snapshot#candidates(CompiledApplicant)
+     */
+    public List<CompiledProfile> candidates(CompiledApplicant applicant) {
+        return snapshot.candidates(applicant);
+    }
+
+    /**
+     * The current immutable view of the index. Callers matching a batch of applicants
+     * should take it once so the whole batch sees the same profiles.
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    public boolean isEmpty() {
+        return snapshot.size() == 0;
+    }
+
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), List.of());
+
+        private final Map<String, CountryBucket> buckets;
+        private final List<CompanySearchProfileDto> profiles;
+
+        private Snapshot(Map<String, CountryBucket> buckets, List<CompanySearchProfileDto> profiles) {
+            this.buckets = buckets;
+            this.profiles = profiles;
+        }
+
+        public int size() {
+            return profiles.size();
+        }
+
+        /**
+         * @return The profiles this snapshot was built from, for brute-force comparison
+         */
+        public List<CompanySearchProfileDto> profiles() {
+            return profiles;
+        }
+
+        /**
+         * Candidate profiles for an applicant: same country, at least one shared tag and an
+         * overlapping salary range. Every profile that {@code MatchingEngine.matches} would
+         * accept is included. The smallest of the country bucket, the union of tag postings
+         * and the salary overlap is enumerated; the other dimensions are left to the matcher.
+         * @param applicant The compiled applicant
+         * @return Candidate profiles, each at most once
+         */
+        public List<CompiledProfile> candidates(CompiledApplicant applicant) {
+            if (applicant.country() == null || applicant.skillIds().length == 0) {
+                return List.of();
+            }
+
+            CountryBucket bucket = buckets.get(applicant.country());
+            if (bucket == null) {
+                return List.of();
+            }
+
+            int countryEstimate = bucket.profiles().length;
+            int tagEstimate = 0;
+            for (int skillId : applicant.skillIds()) {
+                int[] posting = bucket.postings().get(skillId);
+                if (posting != null) {
+                    tagEstimate += posting.length;
+                }
+            }
+            if (tagEstimate == 0) {
+                return List.of();
+            }
+            int salaryEstimate = bucket.salaries().estimate(applicant.salaryMin(), applicant.salaryMax());
+            if (salaryEstimate == 0) {
+                return List.of();
+            }
+
+            if (countryEstimate <= tagEstimate && countryEstimate <= salaryEstimate) {
+                return Collections.unmodifiableList(Arrays.asList(bucket.profiles()));
+            }
+
+            BitSet hits = new BitSet(bucket.profiles().length);
+            if (tagEstimate <= salaryEstimate) {
+                for (int skillId : applicant.skillIds()) {
+                    int[] posting = bucket.postings().get(skillId);
+                    if (posting != null) {
+                        for (int position : posting) {
+                            hits.set(position);
+                        }
+                    }
+                }
+            } else {
+                bucket.salaries().collect(applicant.salaryMin(), applicant.salaryMax(), hits);
+            }
+
+            List<CompiledProfile> result = new ArrayList<>(hits.cardinality());
+            for (int i = hits.nextSetBit(0); i >= 0; i = hits.nextSetBit(i + 1)) {
+                result.add(bucket.profiles()[i]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Profiles of one country, tag id -> positions (into {@code profiles}) posting lists
+     * and the salary endpoints of the same positions.
+     */
+    private record CountryBucket(CompiledProfile[] profiles, Map<Integer, int[]> postings, SalaryIndex salaries) {
+
+        static CountryBucket of(List<CompiledProfile> list) {
+            CompiledProfile[] profiles = list.toArray(new CompiledProfile[0]);
+            Map<Integer, List<Integer>> building = new HashMap<>();
+            for (int i = 0; i < profiles.length; i++) {
+                // tagIds are distinct, so each profile is posted at most once per tag
+                for (int tagId : profiles[i].tagIds()) {
+                    building.computeIfAbsent(tagId, k -> new ArrayList<>()).add(i);
+                }
+            }
+
+            Map<Integer, int[]> postings = new HashMap<>();
+            building.forEach((tagId, positions) ->
+                    postings.put(tagId, positions.stream().mapToInt(Integer::intValue).toArray()));
+            return new CountryBucket(profiles, postings, SalaryIndex.of(profiles));
+        }
+    }
+}
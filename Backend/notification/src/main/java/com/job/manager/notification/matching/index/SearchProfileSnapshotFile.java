@@ -0,0 +1,205 @@
+package com.job.manager.notification.matching.index;
+
+import com.job.manager.notification.matching.dto.CompanySearchProfileDto;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary snapshot of the search profile replica plus the topic offsets it
+ * reflects. Every distinct string (ids, countries, tags, statuses, degrees, salaries)
+ * is stored once in a string table and profiles refer to it by int index, so the file
+ * is a fraction of the JSON size. Files are written to a temp file and atomically
+ * moved into place, and read through a read-only memory mapping.
+ *
+ * <pre>
+ * int magic, int version
+ * string topic, long writtenAt (epoch millis)
+ * int partitions, (int partition, long offset)*
+ * int strings, (int length, utf-8 bytes)*
+ * int profiles, (ref companyId, ref country, refs tags, refs statuses, ref degree, ref salaryMin, ref salaryMax)*
+ * </pre>
+ * A ref is an int index into the string table, -1 for null; refs is an int count
+ * (-1 for a null collection) followed by that many refs.
+ */
+public final class SearchProfileSnapshotFile {
+
+    private static final int MAGIC = 0x4A4D5350; // "JMSP"
+    private static final int VERSION = 2;
+    private static final int NULL = -1;
+
+    private SearchProfileSnapshotFile() {
+    }
+
+    public record Contents(String topic, Instant writtenAt, Map<Integer, Long> offsets,
+                           List<CompanySearchProfileDto> profiles) {
+    }
+
+    public static void write(Path path, Contents contents) throws IOException {
+        StringTable strings = new StringTable();
+        List<int[]> encoded = new ArrayList<>(contents.profiles().size());
+        for (CompanySearchProfileDto profile : contents.profiles()) {
+            encoded.add(encode(profile, strings));
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, contents.topic());
+            out.writeLong(contents.writtenAt().toEpochMilli());
+
+            out.writeInt(contents.offsets().size());
+            for (Map.Entry<Integer, Long> offset : contents.offsets().entrySet()) {
+                out.writeInt(offset.getKey());
+                out.writeLong(offset.getValue());
+            }
+
+            out.writeInt(strings.values.size());
+            for (String value : strings.values) {
+                writeString(out, value);
+            }
+
+            out.writeInt(encoded.size());
+            for (int[] record : encoded) {
+                for (int value : record) {
+                    out.writeInt(value);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Contents read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Not a search profile snapshot (or unsupported version): " + path);
+            }
+            String topic = readString(in);
+            Instant writtenAt = Instant.ofEpochMilli(in.getLong());
+
+            int partitions = in.getInt();
+            Map<Integer, Long> offsets = new HashMap<>();
+            for (int i = 0; i < partitions; i++) {
+                offsets.put(in.getInt(), in.getLong());
+            }
+
+            String[] strings = new String[in.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readString(in);
+            }
+
+            int count = in.getInt();
+            List<CompanySearchProfileDto> profiles = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                profiles.add(decode(in, strings));
+            }
+            return new Contents(topic, writtenAt, offsets, profiles);
+        }
+    }
+
+    private static int[] encode(CompanySearchProfileDto profile, StringTable strings) {
+        List<Integer> record = new ArrayList<>();
+        record.add(strings.ref(profile.getCompanyId()));
+        record.add(strings.ref(profile.getCountry()));
+        addRefs(record, profile.getTechnicalTags(), strings);
+        addRefs(record, profile.getEmploymentStatus(), strings);
+        record.add(strings.ref(profile.getHighestEducationDegree()));
+        record.add(strings.ref(profile.getSalaryMin() == null ? null : profile.getSalaryMin().toString()));
+        record.add(strings.ref(profile.getSalaryMax() == null ? null : profile.getSalaryMax().toString()));
+        return record.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void addRefs(List<Integer> record, Collection<String> values, StringTable strings) {
+        if (values == null) {
+            record.add(NULL);
+            return;
+        }
+        record.add(values.size());
+        for (String value : values) {
+            record.add(strings.ref(value));
+        }
+    }
+
+    private static CompanySearchProfileDto decode(ByteBuffer in, String[] strings) {
+        CompanySearchProfileDto profile = new CompanySearchProfileDto();
+        profile.setCompanyId(string(in.getInt(), strings));
+        profile.setCountry(string(in.getInt(), strings));
+        profile.setTechnicalTags(readRefs(in, strings, new ArrayList<>()));
+        profile.setEmploymentStatus(readRefs(in, strings, new LinkedHashSet<>()));
+        profile.setHighestEducationDegree(string(in.getInt(), strings));
+        String salaryMin = string(in.getInt(), strings);
+        String salaryMax = string(in.getInt(), strings);
+        profile.setSalaryMin(salaryMin == null ? null : new BigDecimal(salaryMin));
+        profile.setSalaryMax(salaryMax == null ? null : new BigDecimal(salaryMax));
+        return profile;
+    }
+
+    private static <C extends Collection<String>> C readRefs(ByteBuffer in, String[] strings, C target) {
+        int count = in.getInt();
+        if (count == NULL) {
+            return null;
+        }
+        for (int i = 0; i < count; i++) {
+            target.add(string(in.getInt(), strings));
+        }
+        return target;
+    }
+
+    private static String string(int ref, String[] strings) {
+        return ref == NULL ? null : strings[ref];
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class StringTable {
+
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int ref(String value) {
+            if (value == null) {
+                return NULL;
+            }
+            return refs.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+    }
+}
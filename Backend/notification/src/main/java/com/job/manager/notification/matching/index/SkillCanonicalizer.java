@@ -0,0 +1,186 @@
+package com.job.manager.notification.matching.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maps skill and tag spellings to one canonical key, so "JS", "javascript" and
+ * "Java Script" all become {@code javascript}. A value is lowercased and stripped of
+ * everything but letters, digits, {@code +} and {@code #}, then looked up in the alias
+ * table. Canonical keys map to themselves, so canonicalizing twice is a no-op.
+ *
+ * The table is read from {@code matching.synonyms.location}, one line per skill:
+ * <pre>
+ * # canonical: alias, alias, ...
+ * javascript: js, ecmascript, es6
+ * csharp: c#, c sharp
+ * </pre>
+ * When the location is a file it is checked for changes every
+ * {@code matching.synonyms.reload-interval-ms}; {@link #version()} increases on every
+ * reload so the index can be rebuilt with the new table.
+ */
+@Slf4j
+@Component
+public class SkillCanonicalizer {
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+
+    private volatile Map<String, String> aliases = Map.of();
+    private final AtomicLong version = new AtomicLong();
+    private long loadedModified = -1;
+
+    /**
+     * Canonicalizer without a table: only casing and punctuation are normalized.
+     */
+    public SkillCanonicalizer() {
+        this.resourceLoader = null;
+        this.location = null;
+    }
+
+    @Autowired
+    public SkillCanonicalizer(
+            ResourceLoader resourceLoader,
+            @Value("${matching.synonyms.location:classpath:skill-synonyms.txt}") String location
+    ) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+        reloadIfChanged();
+    }
+
+    /**
+     * @return The canonical key, or null for a blank value
+     */
+    public String canonicalize(String skill) {
+        String key = strip(skill);
+        if (key == null) {
+            return null;
+        }
+        return aliases.getOrDefault(key, key);
+    }
+
+    /**
+     * @return Distinct canonical keys of the given skills, in first-seen order
+     */
+    public List<String> canonicalizeAll(Collection<String> skills) {
+        if (skills == null) {
+            return null;
+        }
+        LinkedHashSet<String> canonical = new LinkedHashSet<>();
+        for (String skill : skills) {
+            String key = canonicalize(skill);
+            if (key != null) {
+                canonical.add(key);
+            }
+        }
+        return List.copyOf(canonical);
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${matching.synonyms.reload-interval-ms:60000}",
+            initialDelayString = "${matching.synonyms.reload-interval-ms:60000}"
+    )
+    public synchronized void reloadIfChanged() {
+        if (location == null || location.isBlank()) {
+            return;
+        }
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            if (loadedModified == -1) {
+                log.warn("Skill synonym table {} not found, only normalizing case and punctuation", location);
+                loadedModified = 0;
+            }
+            return;
+        }
+
+        try {
+            long modified = resource.isFile() ? resource.lastModified() : 0;
+            if (modified == loadedModified) {
+                return;
+            }
+            Map<String, String> loaded = read(resource);
+            if (!loaded.equals(aliases)) {
+                aliases = loaded;
+                version.incrementAndGet();
+                log.info("Loaded {} skill aliases from {}", loaded.size(), location);
+            }
+            loadedModified = modified;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Failed to load skill synonym table {}, keeping the previous one: {}", location, e.getMessage());
+        }
+    }
+
+    private static Map<String, String> read(Resource resource) throws IOException {
+        Map<String, String> loaded = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                // '#' is only a comment at the start of a line, since it appears in skills like C#
+                if (line.isBlank() || line.strip().startsWith("#")) {
+                    continue;
+                }
+
+                int colon = line.indexOf(':');
+                String canonical = colon < 0 ? null : strip(line.substring(0, colon));
+                if (canonical == null) {
+                    throw new IllegalArgumentException("line " + lineNumber + " is not 'canonical: alias, ...'");
+                }
+                put(loaded, canonical, canonical, lineNumber);
+                for (String alias : line.substring(colon + 1).split(",")) {
+                    String key = strip(alias);
+                    if (key != null) {
+                        put(loaded, key, canonical, lineNumber);
+                    }
+                }
+            }
+        }
+        return Map.copyOf(loaded);
+    }
+
+    private static void put(Map<String, String> aliases, String key, String canonical, int lineNumber) {
+        String previous = aliases.putIfAbsent(key, canonical);
+        if (previous != null && !Objects.equals(previous, canonical)) {
+            throw new IllegalArgumentException("line " + lineNumber + ": '" + key
+                    + "' is already an alias of '" + previous + "'");
+        }
+    }
+
+    /**
+     * Lowercase and keep only letters, digits, '+' and '#' ("Node.js" -> "nodejs", "C++" -> "c++").
+     */
+    static String strip(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(value.length());
+        value.toLowerCase(Locale.ROOT).codePoints()
+                .filter(c -> Character.isLetterOrDigit(c) || c == '+' || c == '#')
+                .forEach(key::appendCodePoint);
+        return key.isEmpty() ? null : key.toString();
+    }
+}
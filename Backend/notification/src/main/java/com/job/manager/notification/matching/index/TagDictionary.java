@@ -0,0 +1,128 @@
+package com.job.manager.notification.matching.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared dictionary mapping technical tags, canonicalized by {@link SkillCanonicalizer},
+ * to dense int ids.
+ * Profiles intern their tags when indexed; applicant skills are only looked up,
+ * so unknown skills never grow the dictionary.
+ */
+@Component
+public class TagDictionary {
+
+    public static final int UNKNOWN = -1;
+
+    private final SkillCanonicalizer skillCanonicalizer;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    public TagDictionary() {
+        this(new SkillCanonicalizer());
+    }
+
+    @Autowired
+    public TagDictionary(SkillCanonicalizer skillCanonicalizer) {
+        this.skillCanonicalizer = skillCanonicalizer;
+    }
+
+    public int intern(String tag) {
+        String key = skillCanonicalizer.canonicalize(tag);
+        if (key == null) {
+            return UNKNOWN;
+        }
+        return ids.computeIfAbsent(key, k -> nextId.getAndIncrement());
+    }
+
+    public int lookup(String tag) {
+        String key = skillCanonicalizer.canonicalize(tag);
+        if (key == null) {
+            return UNKNOWN;
+        }
+        return ids.getOrDefault(key, UNKNOWN);
+    }
+
+    /**
+     * @return Sorted, distinct ids of all given tags (interning new ones)
+     */
+    public int[] internAll(Collection<String> tags) {
+        if (tags == null) {
+            return new int[0];
+        }
+        return sortedDistinct(tags.stream().mapToInt(this::intern).toArray());
+    }
+
+    /**
+     * @return Sorted, distinct ids of the known tags; unknown tags are dropped
+     */
+    public int[] lookupAll(Collection<String> tags) {
+        if (tags == null) {
+            return new int[0];
+        }
+        return sortedDistinct(tags.stream().mapToInt(this::lookup).toArray());
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * True if two sorted id arrays share at least one id. Linear merge, no allocation.
+     */
+    public static boolean overlaps(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                return true;
+            }
+            if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Number of ids two sorted id arrays share. Linear merge, no allocation.
+     */
+    public static int overlapCount(int[] a, int[] b) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                count++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    private static int[] sortedDistinct(int[] ids) {
+        return Arrays.stream(ids).filter(id -> id != UNKNOWN).sorted().distinct().toArray();
+    }
+}
@@ -0,0 +1,59 @@
+package com.job.manager.notification.matching.kafka;
+
+import com.job.manager.notification.dto.ApplicantMatchedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Output of the matching stage: every match is published to {@code applicant-matched},
+ * keyed by companyId so one company's notifications stay in order on one partition.
+ * Persisting, pushing and emailing happen in the delivery consumer, so slow SMTP or
+ * Mongo no longer holds up matching.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApplicantMatchedKafkaProducer {
+
+    private final KafkaTemplate<String, ApplicantMatchedEvent> matchedKafkaTemplate;
+
+    @Value("${kafka.topic.applicant-matched:applicant-matched}")
+    private String applicantMatchedTopic;
+
+    @Value("${matching.delivery.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    /**
+     * Publish all matches and wait until the broker has acknowledged every one, so the
+     * caller may mark them processed. Throws if any send fails, leaving the applicant
+     * event to be redelivered.
+     */
+    public void publish(List<ApplicantMatchedEvent> matches) {
+        if (matches.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture<?>[] sends = matches.stream()
+                .map(match -> matchedKafkaTemplate.send(applicantMatchedTopic, match.getCompanyId(), match))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing matches", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to publish " + matches.size() + " matches to "
+                    + applicantMatchedTopic, e);
+        }
+        log.debug("Published {} matches to {}", matches.size(), applicantMatchedTopic);
+    }
+}
@@ -0,0 +1,125 @@
+package com.job.manager.notification.matching.kafka;
+
+import com.job.manager.notification.dto.ApplicantMatchedEvent;
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import com.job.manager.notification.matching.index.SearchProfileIndex;
+import com.job.manager.notification.matching.model.RankedMatches;
+import com.job.manager.notification.matching.model.ScoredMatch;
+import com.job.manager.notification.matching.service.ApplicantMatchProcessor;
+import com.job.manager.notification.matching.service.MatchDigestService;
+import com.job.manager.notification.matching.service.ProcessedMatchStore;
+import com.job.manager.notification.matching.service.ProfileBackfillService;
+import com.job.manager.notification.matching.service.ShadowMatchingEngine;
+import com.job.manager.notification.metrics.MatchingMetrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Batch replacement for {@link ApplicantProfileKafkaListener}, enabled with
+ * {@code matching.batch.enabled=true}. A poll's worth of events is matched in parallel
+ * against one index snapshot, and all resulting matches are published to the delivery stage together.
+ * Several events for the same applicant within one poll are coalesced to the latest.
+ * As in {@link ApplicantMatchProcessor}, only each applicant's top K matches are notified
+ * now and the rest go to the digest. Mongo is read once before and written with one bulk
+ * write per collection after the parallel stage, which keeps the matching pool on CPU work.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "matching.batch.enabled", havingValue = "true")
+public class ApplicantProfileBatchKafkaListener {
+
+    private final SearchProfileIndex searchProfileIndex;
+    private final ShadowMatchingEngine shadowMatchingEngine;
+    private final ApplicantMatchedKafkaProducer applicantMatchedKafkaProducer;
+    private final ForkJoinPool matchingPool;
+    private final ProcessedMatchStore processedMatchStore;
+    private final ProfileBackfillService profileBackfillService;
+    private final MatchingMetrics matchingMetrics;
+    private final ApplicantMatchProcessor applicantMatchProcessor;
+    private final MatchDigestService matchDigestService;
+
+    @KafkaListener(
+            topics = "applicant-profile-updates",
+            containerFactory = "applicantProfileBatchKafkaListenerContainerFactory"
+    )
+    public void onApplicantsCreated(List<ApplicantCreatedEvent> events) {
+        long startTime = System.currentTimeMillis();
+        Timer.Sample sample = matchingMetrics.startEvent();
+
+        // Records that failed deserialization arrive as nulls; later events replace earlier ones
+        Map<String, ApplicantCreatedEvent> latest = new LinkedHashMap<>();
+        events.stream()
+                .filter(Objects::nonNull)
+                .forEach(event -> latest.put(event.getApplicantId(), event));
+        List<ApplicantCreatedEvent> valid = new ArrayList<>(latest.values());
+        log.info("Notification(Matching): received batch of {} applicant events ({} valid)",
+                events.size(), valid.size());
+
+        if (valid.isEmpty()) {
+            return;
+        }
+        profileBackfillService.recordApplicants(valid);
+        if (searchProfileIndex.isEmpty()) {
+            log.warn("No company search profiles available for matching batch of {} applicants", valid.size());
+            return;
+        }
+
+        Set<String> processedIds = processedMatchStore.processedIds(valid);
+        SearchProfileIndex.Snapshot snapshot = searchProfileIndex.snapshot();
+        Map<String, RankedMatches> ranked;
+        try {
+            ranked = matchingPool.submit(() -> valid.parallelStream()
+                    .collect(Collectors.toMap(ApplicantCreatedEvent::getApplicantId, event -> applicantMatchProcessor
+                            .rankUnprocessed(event, shadowMatchingEngine.findMatches(event, snapshot), processedIds)))
+            ).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while matching applicant batch", e);
+        } catch (ExecutionException e) {
+            log.error("Error matching applicant batch of {}: {}", valid.size(), e.getCause().getMessage(), e.getCause());
+            throw new IllegalStateException("Failed to match applicant batch", e.getCause());
+        }
+
+        List<ApplicantMatchedEvent> matches = ranked.entrySet().stream()
+                .flatMap(entry -> entry.getValue().immediate().stream()
+                        .map(match -> ApplicantMatchProcessor.toMatchedEvent(match, latest.get(entry.getKey()))))
+                .toList();
+        applicantMatchedKafkaProducer.publish(matches);
+
+        // Deferred before marked processed, so a redelivery after a failure defers them again
+        Map<ApplicantCreatedEvent, List<ScoredMatch>> deferred = new LinkedHashMap<>();
+        Map<ApplicantCreatedEvent, List<String>> processed = new LinkedHashMap<>();
+        ranked.forEach((applicantId, rankedMatches) -> {
+            ApplicantCreatedEvent event = latest.get(applicantId);
+            if (!rankedMatches.deferred().isEmpty()) {
+                deferred.put(event, rankedMatches.deferred());
+            }
+            List<String> companyIds = new ArrayList<>();
+            rankedMatches.immediate().forEach(match -> companyIds.add(match.companyId()));
+            rankedMatches.deferred().forEach(match -> companyIds.add(match.companyId()));
+            processed.put(event, companyIds);
+        });
+        matchDigestService.defer(deferred);
+        processedMatchStore.markProcessed(processed);
+
+        matchingMetrics.batchProcessed(sample, valid.size());
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("Successfully processed batch of {} applicants - published {} matches in {}ms",
+                valid.size(), matches.size(), duration);
+    }
+}
@@ -0,0 +1,61 @@
+package com.job.manager.notification.matching.kafka;
+
+import com.job.manager.notification.matching.service.MatchingShard;
+import com.job.manager.notification.matching.service.ProcessedMatchStore;
+import com.job.manager.notification.matching.service.SearchProfileReplica;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Keeps the {@link MatchingShard} in line with the applicant-profile-updates partitions
+ * assigned to this instance. Events held by the debounce are stored with their partition,
+ * so once a partition is released its held events are matched by the new owner, and the
+ * index is rebuilt for newly assigned partitions before their first record is polled.
+ * Every rebalance also tells the {@link ProcessedMatchStore} that its local filter may
+ * be stale.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MatchingShardRebalanceListener implements ConsumerAwareRebalanceListener {
+
+    private final MatchingShard matchingShard;
+    private final SearchProfileReplica searchProfileReplica;
+    private final ProcessedMatchStore processedMatchStore;
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (!partitions.isEmpty()) {
+            processedMatchStore.assignmentChanged();
+        }
+        if (!matchingShard.isEnabled() || partitions.isEmpty()) {
+            return;
+        }
+        matchingShard.revoke(partitions.stream().map(TopicPartition::partition).toList());
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        onPartitionsRevokedBeforeCommit(consumer, partitions);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (!partitions.isEmpty()) {
+            processedMatchStore.assignmentChanged();
+        }
+        if (!matchingShard.isEnabled() || partitions.isEmpty()) {
+            return;
+        }
+        String topic = partitions.iterator().next().topic();
+        matchingShard.assign(partitions.stream().map(TopicPartition::partition).toList(),
+                consumer.partitionsFor(topic).size());
+        searchProfileReplica.flush();
+    }
+}
@@ -0,0 +1,76 @@
+package com.job.manager.notification.matching.kafka;
+
+import com.job.manager.notification.matching.dto.SearchProfileChangedEvent;
+import com.job.manager.notification.matching.index.TagDictionary;
+import com.job.manager.notification.matching.service.MatchingShard;
+import com.job.manager.notification.matching.service.ProfileBackfillService;
+import com.job.manager.notification.matching.service.SearchProfileReplica;
+import com.job.manager.notification.matching.service.SubscriptionStatusTracker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchProfileChangeKafkaListener implements ConsumerSeekAware {
+
+    private final SearchProfileReplica searchProfileReplica;
+    private final ProfileBackfillService profileBackfillService;
+    private final SubscriptionStatusTracker subscriptionStatusTracker;
+    private final MatchingShard matchingShard;
+    private final SearchProfileReplayTracker searchProfileReplayTracker;
+
+    @KafkaListener(
+            topics = "${kafka.topic.company-search-profiles:company-search-profiles}",
+            containerFactory = "searchProfileKafkaListenerContainerFactory"
+    )
+    public void onSearchProfileChanged(
+            @Payload(required = false) SearchProfileChangedEvent event,
+            @Header(KafkaHeaders.RECEIVED_KEY) String companyId,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(KafkaHeaders.OFFSET) long offset
+    ) {
+        if (event == null) {
+            // Tombstone: the company's search profile was deleted
+            event = new SearchProfileChangedEvent();
+            event.setCompanyId(companyId);
+            event.setEventType("DELETED");
+        }
+        log.debug("Notification(Matching): search profile {} for company {}",
+                event.getEventType(), event.getCompanyId());
+        boolean changed = searchProfileReplica.apply(event, partition, offset);
+
+        if (changed && "UPSERTED".equals(event.getEventType()) && event.getProfile() != null
+                && !searchProfileReplayTracker.isReplay(partition, offset)
+                && subscriptionStatusTracker.isActive(event.getCompanyId())
+                && matchingShard.owns(TagDictionary.normalize(event.getProfile().getCountry()))) {
+            profileBackfillService.requestBackfill(event.getProfile());
+        }
+    }
+
+    /**
+     * Resume after the offsets restored from a snapshot; partitions without one are
+     * replayed from the beginning, whatever the instance's group committed last run.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        Map<Integer, Long> restored = searchProfileReplica.offsets();
+        for (TopicPartition partition : assignments.keySet()) {
+            Long applied = restored.get(partition.partition());
+            if (applied != null) {
+                callback.seek(partition.topic(), partition.partition(), applied + 1);
+            } else {
+                callback.seekToBeginning(partition.topic(), partition.partition());
+            }
+        }
+    }
+}
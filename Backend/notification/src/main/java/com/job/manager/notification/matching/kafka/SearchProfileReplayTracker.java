@@ -0,0 +1,45 @@
+package com.job.manager.notification.matching.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the end offsets of the company-search-profiles partitions when they are
+ * assigned, so the listener can tell the replay of the compacted topic from upserts
+ * that happened since. Offsets, unlike the events' timestamps, do not depend on the
+ * clocks or time zones of the producing service and this one.
+ */
+@Component
+public class SearchProfileReplayTracker implements ConsumerAwareRebalanceListener {
+
+    // partition -> first offset after the replay
+    private final Map<Integer, Long> replayEnd = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        consumer.endOffsets(partitions).forEach((partition, end) -> replayEnd.put(partition.partition(), end));
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        partitions.forEach(partition -> replayEnd.remove(partition.partition()));
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        partitions.forEach(partition -> replayEnd.remove(partition.partition()));
+    }
+
+    /**
+     * @return True if the record was already on the topic when its partition was assigned
+     */
+    public boolean isReplay(int partition, long offset) {
+        return offset < replayEnd.getOrDefault(partition, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,34 @@
+package com.job.manager.notification.matching.model;
+
+import java.util.Locale;
+
+/**
+ * Education degrees in ascending order; the ordinal is the rank compared during matching.
+ */
+public enum EducationDegree {
+    HIGH_SCHOOL,
+    ASSOCIATE,
+    BACHELOR,
+    MASTER,
+    DOCTORATE;
+
+    public static final int UNKNOWN_RANK = -1;
+
+    /**
+     * @return Rank of the degree, or {@link #UNKNOWN_RANK} when missing or unrecognized
+     */
+    public static int rank(String value) {
+        if (value == null || value.isBlank()) {
+            return UNKNOWN_RANK;
+        }
+        String key = value.trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_');
+        if (key.equals("PHD")) {
+            return DOCTORATE.ordinal();
+        }
+        try {
+            return valueOf(key).ordinal();
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN_RANK;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.job.manager.notification.matching.model;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Mirrors the subscription service's EmploymentStatus. Ordinals are used as bit
+ * positions, so new values must only ever be appended.
+ */
+public enum EmploymentStatus {
+    FULL_TIME,
+    PART_TIME,
+    FRESHER,
+    INTERNSHIP,
+    CONTRACT;
+
+    /**
+     * @return Bitmask of the recognized statuses; 0 when none are given or recognized
+     */
+    public static int mask(Collection<String> statuses) {
+        if (statuses == null) {
+            return 0;
+        }
+        int mask = 0;
+        for (String status : statuses) {
+            EmploymentStatus parsed = parse(status);
+            if (parsed != null) {
+                mask |= 1 << parsed.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    public static EmploymentStatus parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String key = value.trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_');
+        try {
+            return valueOf(key);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
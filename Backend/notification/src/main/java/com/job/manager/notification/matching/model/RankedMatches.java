@@ -0,0 +1,41 @@
+package com.job.manager.notification.matching.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Matches of one applicant split into the top K by score, best first, which are
+ * notified immediately, and the rest, which are deferred to the digest.
+ */
+public record RankedMatches(List<ScoredMatch> immediate, List<ScoredMatch> deferred) {
+
+    /**
+     * Select the top {@code k} with a min-heap of size {@code k}: O(n log k) and no full sort.
+     * @param k Maximum immediate matches; 0 or less means no limit
+     */
+    public static RankedMatches of(List<ScoredMatch> matches, int k) {
+        if (k <= 0 || matches.size() <= k) {
+            List<ScoredMatch> all = new ArrayList<>(matches);
+            all.sort(ScoredMatch.BY_SCORE.reversed());
+            return new RankedMatches(all, List.of());
+        }
+
+        PriorityQueue<ScoredMatch> top = new PriorityQueue<>(k, ScoredMatch.BY_SCORE);
+        List<ScoredMatch> deferred = new ArrayList<>(matches.size() - k);
+        for (ScoredMatch match : matches) {
+            if (top.size() < k) {
+                top.add(match);
+            } else if (ScoredMatch.BY_SCORE.compare(match, top.peek()) > 0) {
+                deferred.add(top.poll());
+                top.add(match);
+            } else {
+                deferred.add(match);
+            }
+        }
+
+        List<ScoredMatch> immediate = new ArrayList<>(top);
+        immediate.sort(ScoredMatch.BY_SCORE.reversed());
+        return new RankedMatches(immediate, deferred);
+    }
+}
@@ -0,0 +1,17 @@
+package com.job.manager.notification.matching.model;
+
+import java.util.Comparator;
+
+/**
+ * A company matched by an applicant, with the relevance score of the match in [0, 1].
+ */
+public record ScoredMatch(String companyId, double score) {
+
+    /**
+     * Ascending by score; on equal scores the lexicographically smaller company ranks higher,
+     * so ranking is deterministic.
+     */
+    public static final Comparator<ScoredMatch> BY_SCORE = Comparator
+            .comparingDouble(ScoredMatch::score)
+            .thenComparing(ScoredMatch::companyId, Comparator.reverseOrder());
+}
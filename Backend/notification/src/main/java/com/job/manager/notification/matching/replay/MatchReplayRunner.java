@@ -0,0 +1,391 @@
+package com.job.manager.notification.matching.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import com.job.manager.notification.matching.dto.CompanySearchProfileDto;
+import com.job.manager.notification.matching.index.CompiledApplicant;
+import com.job.manager.notification.matching.index.SearchProfileIndex;
+import com.job.manager.notification.matching.index.SearchProfileSnapshotFile;
+import com.job.manager.notification.matching.index.SkillCanonicalizer;
+import com.job.manager.notification.matching.index.TagDictionary;
+import com.job.manager.notification.matching.model.RankedMatches;
+import com.job.manager.notification.matching.model.ScoredMatch;
+import com.job.manager.notification.matching.service.MatchingEngine;
+import com.job.manager.notification.matching.service.ProfileBackfillService;
+import com.job.manager.notification.matching.service.SubscriptionClient;
+import com.job.manager.notification.matching.service.SubscriptionStatusTracker;
+import com.job.manager.notification.model.Notification;
+import com.job.manager.notification.model.ReplayMatch;
+import com.job.manager.notification.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command-line mode that re-runs matching over a historical window of the
+ * applicant-profile-updates topic, e.g. after the matching rules changed.
+ * All Kafka listeners stay stopped in this mode and no company is notified.
+ *
+ * <pre>
+ * java -jar notification.jar --spring.main.web-application-type=none \
+ *     --matching.replay.enabled=true \
+ *     --matching.replay.from=2025-01-01T00:00:00Z [--matching.replay.to=...] \
+ *     [--matching.replay.output=mongo:replay_matches | file:/tmp/replay.jsonl] \
+ *     [--matching.replay.dry-run=true] [--matching.replay.seed-snapshots=true]
+ * </pre>
+ *
+ * Each partition is sought to the first offset at or after {@code from} and read up
+ * to {@code to} (or the end offset at startup). Events are matched in parallel batches
+ * against one frozen profile snapshot, loaded from the snapshot file when present and
+ * from the subscription service otherwise, and limited to the companies premium-active
+ * now, as in live matching. A dry run writes nothing and instead diffs
+ * the new matches against the notifications already sent to the same applicants.
+ * With {@code seed-snapshots}, the replayed applicants are also stored for profile
+ * backfills, never replacing a newer snapshot; applicants whose last event is older than
+ * the topic's retention cannot be seeded this way.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "matching.replay.enabled", havingValue = "true")
+public class MatchReplayRunner implements ApplicationRunner {
+
+    private static final String MONGO_OUTPUT = "mongo:";
+    private static final String FILE_OUTPUT = "file:";
+    private static final int DIFF_SAMPLES = 20;
+    private static final long REPORT_INTERVAL_MS = 10_000;
+
+    private final ConsumerFactory<String, ApplicantCreatedEvent> applicantProfileConsumerFactory;
+    private final MatchingEngine matchingEngine;
+    private final SkillCanonicalizer skillCanonicalizer;
+    private final SubscriptionClient subscriptionClient;
+    private final NotificationRepository notificationRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool matchingPool;
+    private final ConfigurableApplicationContext context;
+    private final ProfileBackfillService profileBackfillService;
+    private final SubscriptionStatusTracker subscriptionStatusTracker;
+
+    @Value("${kafka.topic.applicant-profile-updates:applicant-profile-updates}")
+    private String topic;
+
+    @Value("${matching.replay.from}")
+    private String from;
+
+    @Value("${matching.replay.to:}")
+    private String to;
+
+    @Value("${matching.replay.output:mongo:replay_matches}")
+    private String output;
+
+    @Value("${matching.replay.dry-run:false}")
+    private boolean dryRun;
+
+    @Value("${matching.replay.seed-snapshots:false}")
+    private boolean seedSnapshots;
+
+    @Value("${matching.ranking.top-k:50}")
+    private int topK;
+
+    @Value("${matching.replay.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${matching.replay.exit-on-completion:true}")
+    private boolean exitOnCompletion;
+
+    @Value("${matching.snapshot.path:/tmp/notification/search-profiles.snapshot}")
+    private String snapshotPath;
+
+    private final String runId = UUID.randomUUID().toString();
+
+    private long lastReport;
+    private long eventsRead;
+    private long matchCount;
+    private long added;
+    private long removed;
+    private long deferredCount;
+    private final List<String> diffSamples = new ArrayList<>();
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Instant since = Instant.parse(from);
+        Instant until = to.isBlank() ? Instant.now() : Instant.parse(to);
+        log.info("Replay {}: matching {} from {} to {} ({}output: {})",
+                runId, topic, since, until, dryRun ? "dry run, no " : "", output);
+
+        SearchProfileIndex index = frozenIndex();
+        long startTime = System.currentTimeMillis();
+        lastReport = startTime;
+
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batchSize));
+        try (Consumer<String, ApplicantCreatedEvent> consumer = applicantProfileConsumerFactory
+                .createConsumer("notification-replay-" + runId, "replay", null, overrides);
+             BufferedWriter fileOutput = openFileOutput()) {
+
+            Map<TopicPartition, Long> stops = seek(consumer, since, until);
+            while (!stops.isEmpty()) {
+                ConsumerRecords<String, ApplicantCreatedEvent> records = consumer.poll(Duration.ofSeconds(1));
+                List<ConsumerRecord<String, ApplicantCreatedEvent>> batch = new ArrayList<>(records.count());
+                for (ConsumerRecord<String, ApplicantCreatedEvent> record : records) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    Long stop = stops.get(partition);
+                    if (stop != null && record.offset() < stop) {
+                        batch.add(record);
+                    }
+                }
+                stops.keySet().removeIf(partition -> consumer.position(partition) >= stops.get(partition));
+                consumer.pause(consumer.assignment().stream().filter(p -> !stops.containsKey(p)).toList());
+
+                eventsRead += batch.size();
+                process(batch, index, fileOutput);
+                report(startTime, false);
+            }
+        }
+
+        report(startTime, true);
+        if (exitOnCompletion) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    /**
+     * Assign every partition at its first offset at or after {@code from}.
+     * @return Partition -> offset to stop before, only for partitions with records in range
+     */
+    private Map<TopicPartition, Long> seek(Consumer<String, ApplicantCreatedEvent> consumer,
+                                           Instant since, Instant until) {
+        List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+                .map(info -> new TopicPartition(topic, info.partition()))
+                .toList();
+        Map<TopicPartition, OffsetAndTimestamp> starts = consumer.offsetsForTimes(timestamps(partitions, since));
+        Map<TopicPartition, OffsetAndTimestamp> untils = consumer.offsetsForTimes(timestamps(partitions, until));
+        Map<TopicPartition, Long> ends = consumer.endOffsets(partitions);
+
+        Map<TopicPartition, Long> stops = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            OffsetAndTimestamp start = starts.get(partition);
+            OffsetAndTimestamp stop = untils.get(partition);
+            long stopOffset = stop != null ? stop.offset() : ends.get(partition);
+            if (start != null && start.offset() < stopOffset) {
+                stops.put(partition, stopOffset);
+            }
+        }
+
+        consumer.assign(stops.keySet());
+        stops.keySet().forEach(partition -> consumer.seek(partition, starts.get(partition).offset()));
+        log.info("Replay {}: reading {} of {} partitions, up to {} events",
+                runId, stops.size(), partitions.size(),
+                stops.entrySet().stream().mapToLong(e -> e.getValue() - starts.get(e.getKey()).offset()).sum());
+        return stops;
+    }
+
+    private static Map<TopicPartition, Long> timestamps(List<TopicPartition> partitions, Instant instant) {
+        return partitions.stream().collect(Collectors.toMap(p -> p, p -> instant.toEpochMilli()));
+    }
+
+    private void process(List<ConsumerRecord<String, ApplicantCreatedEvent>> batch,
+                         SearchProfileIndex index,
+                         BufferedWriter fileOutput) throws IOException {
+        // Records that failed deserialization arrive as nulls; later events replace earlier ones
+        Map<String, ConsumerRecord<String, ApplicantCreatedEvent>> latest = new LinkedHashMap<>();
+        batch.stream()
+                .filter(record -> record.value() != null && record.value().getApplicantId() != null)
+                .forEach(record -> latest.put(record.value().getApplicantId(), record));
+        if (latest.isEmpty()) {
+            return;
+        }
+        if (seedSnapshots && !dryRun) {
+            profileBackfillService.seedApplicants(latest.values().stream()
+                    .map(record -> ProfileBackfillService.snapshot(record.value(), Instant.ofEpochMilli(record.timestamp())))
+                    .toList());
+        }
+
+        SearchProfileIndex.Snapshot snapshot = index.snapshot();
+        List<ReplayMatch> matches;
+        try {
+            matches = matchingPool.submit(() -> latest.values().parallelStream()
+                    .flatMap(record -> rank(record, index, snapshot))
+                    .toList()
+            ).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying applicant batch", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to replay applicant batch", e.getCause());
+        }
+        matchCount += matches.size();
+
+        if (dryRun) {
+            diff(latest.keySet(), matches);
+        } else if (fileOutput != null) {
+            for (ReplayMatch match : matches) {
+                fileOutput.write(objectMapper.writeValueAsString(match));
+                fileOutput.newLine();
+            }
+        } else if (!matches.isEmpty()) {
+            mongoTemplate.insert(matches, output.substring(MONGO_OUTPUT.length()));
+        }
+    }
+
+    /**
+     * Score and rank the applicant's matches like the live path: the top K are notified
+     * immediately and the rest are deferred to the digest.
+     */
+    private Stream<ReplayMatch> rank(ConsumerRecord<String, ApplicantCreatedEvent> record,
+                                     SearchProfileIndex index,
+                                     SearchProfileIndex.Snapshot snapshot) {
+        CompiledApplicant applicant = index.compile(record.value());
+        RankedMatches ranked = RankedMatches.of(
+                matchingEngine.findScoredMatches(applicant, snapshot.candidates(applicant)), topK);
+        return Stream.concat(
+                ranked.immediate().stream().map(match -> toReplayMatch(match, false, record)),
+                ranked.deferred().stream().map(match -> toReplayMatch(match, true, record)));
+    }
+
+    private ReplayMatch toReplayMatch(ScoredMatch match, boolean deferred,
+                                      ConsumerRecord<String, ApplicantCreatedEvent> record) {
+        return ReplayMatch.builder()
+                .runId(runId)
+                .applicantId(record.value().getApplicantId())
+                .companyId(match.companyId())
+                .score(match.score())
+                .deferred(deferred)
+                .partition(record.partition())
+                .offset(record.offset())
+                .eventTimestamp(Instant.ofEpochMilli(record.timestamp()))
+                .build();
+    }
+
+    /**
+     * Compare the replayed top-K matches with the notifications already sent for the same
+     * applicants. Deferred matches only reach a company inside a digest, which names no
+     * applicant, so they are counted but not diffed. The live path ranks only the companies
+     * not yet notified about that applicant version, so a company can rank differently there.
+     */
+    private void diff(Set<String> applicantIds, List<ReplayMatch> matches) {
+        Set<String> replayed = new HashSet<>();
+        for (ReplayMatch match : matches) {
+            if (match.isDeferred()) {
+                deferredCount++;
+            } else {
+                replayed.add(match.getApplicantId() + " -> " + match.getCompanyId());
+            }
+        }
+        Set<String> sent = new HashSet<>();
+        for (Notification notification : notificationRepository.findByApplicantIdIn(applicantIds)) {
+            sent.add(notification.getApplicantId() + " -> " + notification.getCompanyId());
+        }
+
+        for (String pair : replayed) {
+            if (!sent.contains(pair)) {
+                added++;
+                sampleDiff("+ " + pair);
+            }
+        }
+        for (String pair : sent) {
+            if (!replayed.contains(pair)) {
+                removed++;
+                sampleDiff("- " + pair);
+            }
+        }
+    }
+
+    private void sampleDiff(String line) {
+        if (diffSamples.size() < DIFF_SAMPLES) {
+            diffSamples.add(line);
+        }
+    }
+
+    private void report(long startTime, boolean done) {
+        long now = System.currentTimeMillis();
+        if (!done && now - lastReport < REPORT_INTERVAL_MS) {
+            return;
+        }
+        lastReport = now;
+        long elapsed = Math.max(1, now - startTime);
+        log.info("Replay {}{}: {} events, {} matches in {}ms ({} events/s)",
+                runId, done ? " finished" : "", eventsRead, matchCount, elapsed, eventsRead * 1000 / elapsed);
+        if (done && dryRun) {
+            log.info("Replay {} dry run: {} new matches not yet notified (+), {} notified matches no longer matching"
+                            + " or ranked out (-), {} matches ranked below the top {} (digest only, not diffed)",
+                    runId, added, removed, deferredCount, topK);
+            diffSamples.forEach(line -> log.info("Replay {} diff: {}", runId, line));
+        }
+    }
+
+    private SearchProfileIndex frozenIndex() throws IOException {
+        Path file = Path.of(snapshotPath);
+        List<CompanySearchProfileDto> profiles;
+        if (Files.exists(file)) {
+            profiles = SearchProfileSnapshotFile.read(file).profiles();
+            log.info("Replay {}: loaded {} profiles from snapshot {}", runId, profiles.size(), file);
+        } else {
+            profiles = subscriptionClient.getAllSearchProfiles();
+            log.info("Replay {}: loaded {} profiles from subscription service", runId, profiles.size());
+        }
+
+        // Only premium-active companies are matched live, see SearchProfileReplica#flush
+        List<CompanySearchProfileDto> active = profiles.stream()
+                .filter(profile -> subscriptionStatusTracker.isActive(profile.getCompanyId()))
+                .toList();
+        log.info("Replay {}: indexing {} profiles of premium-active companies, skipping {}",
+                runId, active.size(), profiles.size() - active.size());
+
+        // A private index, so live profile changes never reach a running replay
+        SearchProfileIndex index = new SearchProfileIndex(new TagDictionary(skillCanonicalizer));
+        index.rebuild(active);
+        return index;
+    }
+
+    private BufferedWriter openFileOutput() throws IOException {
+        if (dryRun || !output.startsWith(FILE_OUTPUT)) {
+            if (!dryRun && !output.startsWith(MONGO_OUTPUT)) {
+                throw new IllegalArgumentException("matching.replay.output must start with mongo: or file:, got " + output);
+            }
+            return null;
+        }
+        Path file = Path.of(output.substring(FILE_OUTPUT.length()));
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        return Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+}
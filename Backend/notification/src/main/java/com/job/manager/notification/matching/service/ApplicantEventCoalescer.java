@@ -0,0 +1,291 @@
+package com.job.manager.notification.matching.service;
+
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import com.job.manager.notification.model.PendingApplicantEvent;
+import com.job.manager.notification.repository.PendingApplicantEventRepository;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debounces applicant events per applicantId. An event is held until no newer event
+ * for the same applicant arrived for {@code quiet-window-ms} (or {@code max-delay-ms}
+ * passed since the first one), and only the latest version is matched.
+ * A quiet window of 0 processes every event inline, as before.
+ *
+ * Held events are written to {@code pending_applicant_events} before the listener
+ * returns, so the Kafka offset is only committed once the event is durable. A dedicated
+ * thread claims due events with a lease, like the email outbox, so a crashed instance's
+ * events are picked up again. Failed events are retried with exponential backoff up to
+ * {@code matching.debounce.max-attempts}, then kept as failed for inspection.
+ * With sharding, an instance only claims the events of partitions it owns, since only it
+ * has their countries indexed; a released partition's events are left to its new owner.
+ *
+ * Events are keyed by country then, so an applicant who moves country continues on
+ * another partition and their events may arrive out of order. An event with a lower
+ * {@code eventVersion} than the held one is dropped. One arriving after the newer event
+ * was already matched is still matched, which the quiet window makes unlikely.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ApplicantEventCoalescer {
+
+    private final ApplicantMatchProcessor applicantMatchProcessor;
+    private final PendingApplicantEventRepository pendingApplicantEventRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MatchingShard matchingShard;
+
+    private ScheduledExecutorService flusher;
+
+    @Value("${matching.debounce.quiet-window-ms:5000}")
+    private long quietWindowMs;
+
+    @Value("${matching.debounce.max-delay-ms:30000}")
+    private long maxDelayMs;
+
+    @Value("${matching.debounce.poll-interval-ms:250}")
+    private long pollIntervalMs;
+
+    @Value("${matching.debounce.batch-size:100}")
+    private int batchSize;
+
+    @Value("${matching.debounce.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${matching.debounce.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${matching.debounce.initial-backoff-ms:5000}")
+    private long initialBackoffMs;
+
+    @Value("${matching.debounce.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    // Offline replay runs must not match the live held events
+    @Value("${matching.replay.enabled:false}")
+    private boolean replayMode;
+
+    /**
+     * Flushing blocks on matching and Kafka sends, so it gets its own thread instead of
+     * holding one of the shared scheduler's.
+     */
+    @PostConstruct
+    void start() {
+        if (quietWindowMs <= 0 || replayMode) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "applicant-debounce");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flushDue();
+            } catch (Exception e) {
+                // Claimed events are picked up again once their lease expires
+                log.error("Flushing held applicant events failed: {}", e.getMessage(), e);
+            }
+        }, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+    }
+
+    /**
+     * Hold the event, replacing any older one for the same applicant. Throws if it could
+     * not be stored, so the record is redelivered.
+     * @param partition The applicant-profile-updates partition the event was read from
+     */
+    public void submit(ApplicantCreatedEvent event, int partition) {
+        if (quietWindowMs <= 0 || event.getApplicantId() == null) {
+            applicantMatchProcessor.process(event);
+            return;
+        }
+
+        Criteria held = Criteria.where("_id").is(event.getApplicantId());
+        if (event.getEventVersion() != null) {
+            // A held event with a higher version is newer; the upsert then fails on the existing id
+            held = held.orOperator(
+                    Criteria.where("event.eventVersion").is(null),
+                    Criteria.where("event.eventVersion").lte(event.getEventVersion()));
+        }
+
+        Instant now = Instant.now();
+        try {
+            mongoTemplate.upsert(
+                    new Query(held),
+                    new Update()
+                            .set("event", event)
+                            .set("partition", partition)
+                            .inc("revision", 1)
+                            .set("dueAt", now.plusMillis(quietWindowMs))
+                            .set("attempts", 0)
+                            .set("failed", false)
+                            .unset("lastError")
+                            .setOnInsert("firstSeenAt", now)
+                            .setOnInsert("deadline", now.plusMillis(maxDelayMs)),
+                    PendingApplicantEvent.class);
+        } catch (DuplicateKeyException e) {
+            log.info("Dropping event version {} of applicant {}, a newer one is already held",
+                    event.getEventVersion(), event.getApplicantId());
+            return;
+        }
+        log.debug("Holding applicant event for {}", event.getApplicantId());
+    }
+
+    /**
+     * Match every held event whose quiet window or max delay has passed. Keeps draining
+     * while full batches are claimed.
+     */
+    public void flushDue() {
+        List<PendingApplicantEvent> claimed;
+        do {
+            String claimToken = UUID.randomUUID().toString();
+            claimed = claim(claimToken);
+            claimed.forEach(held -> process(held, claimToken));
+        } while (claimed.size() == batchSize);
+    }
+
+    /**
+     * Mark up to {@code batch-size} due events, including ones whose lease expired, as
+     * claimed by this run. The update re-checks the condition, so concurrent instances
+     * never claim the same event.
+     */
+    private List<PendingApplicantEvent> claim(String claimToken) {
+        Instant now = Instant.now();
+        Criteria due = due(now);
+        if (matchingShard.isEnabled()) {
+            Set<Integer> owned = matchingShard.ownedPartitions();
+            if (owned.isEmpty()) {
+                return List.of();
+            }
+            // Entries held before partitions were recorded go to whichever owner claims them
+            due = new Criteria().andOperator(due, new Criteria().orOperator(
+                    Criteria.where("partition").in(owned),
+                    Criteria.where("partition").exists(false)));
+        }
+
+        Query candidates = new Query(due).with(Sort.by("dueAt")).limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, PendingApplicantEvent.class).stream()
+                .map(PendingApplicantEvent::getApplicantId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        mongoTemplate.updateMulti(
+                new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), due)),
+                new Update()
+                        .set("claimedBy", claimToken)
+                        .set("leaseUntil", now.plusMillis(leaseMs)),
+                PendingApplicantEvent.class);
+        return pendingApplicantEventRepository.findByClaimedBy(claimToken);
+    }
+
+    private static Criteria due(Instant now) {
+        Criteria unclaimed = new Criteria().orOperator(
+                Criteria.where("leaseUntil").is(null),
+                Criteria.where("leaseUntil").lt(now));
+        Criteria windowPassed = new Criteria().orOperator(
+                Criteria.where("dueAt").lte(now),
+                Criteria.where("deadline").lte(now));
+        return new Criteria().andOperator(Criteria.where("failed").is(false), unclaimed, windowPassed);
+    }
+
+    private void process(PendingApplicantEvent held, String claimToken) {
+        if (matchingShard.isEnabled() && held.getPartition() != null
+                && !matchingShard.ownedPartitions().contains(held.getPartition())) {
+            // Released since the claim, and this instance no longer indexes its country
+            release(held, claimToken);
+            return;
+        }
+        try {
+            applicantMatchProcessor.process(held.getEvent());
+        } catch (Exception e) {
+            retryLater(held, claimToken, e);
+            return;
+        }
+
+        // Only the matched revision is removed; a newer event that arrived meanwhile stays held
+        DeleteResult removed = mongoTemplate.remove(
+                new Query(Criteria.where("_id").is(held.getApplicantId()).and("revision").is(held.getRevision())),
+                PendingApplicantEvent.class);
+        if (removed.getDeletedCount() == 0) {
+            release(held, claimToken);
+        }
+    }
+
+    private void retryLater(PendingApplicantEvent held, String claimToken, Exception error) {
+        int attempts = held.getAttempts() + 1;
+        boolean exhausted = attempts >= maxAttempts;
+        Instant retryAt = Instant.now().plusMillis(backoff(attempts));
+
+        UpdateResult updated = mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(held.getApplicantId())
+                        .and("revision").is(held.getRevision())
+                        .and("claimedBy").is(claimToken)),
+                new Update()
+                        .set("attempts", attempts)
+                        .set("failed", exhausted)
+                        .set("lastError", String.valueOf(error.getMessage()))
+                        .set("dueAt", retryAt)
+                        .set("deadline", retryAt)
+                        .unset("claimedBy")
+                        .unset("leaseUntil"),
+                PendingApplicantEvent.class);
+        if (updated.getMatchedCount() == 0) {
+            // Replaced by a newer event, which starts over with its own attempts
+            release(held, claimToken);
+            return;
+        }
+
+        if (exhausted) {
+            log.error("Matching held event of applicant {} failed after {} attempts, keeping it as failed: {}",
+                    held.getApplicantId(), attempts, error.getMessage());
+        } else {
+            log.warn("Matching held event of applicant {} failed (attempt {}), retrying at {}: {}",
+                    held.getApplicantId(), attempts, retryAt, error.getMessage());
+        }
+    }
+
+    private void release(PendingApplicantEvent held, String claimToken) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(held.getApplicantId()).and("claimedBy").is(claimToken)),
+                new Update().unset("claimedBy").unset("leaseUntil"),
+                PendingApplicantEvent.class);
+    }
+
+    /**
+     * Exponential backoff: initial, 2x initial, 4x initial, ... capped at the maximum.
+     */
+    private long backoff(int attempts) {
+        long delay = initialBackoffMs << Math.min(attempts - 1, 20);
+        return Math.min(delay, maxBackoffMs);
+    }
+}
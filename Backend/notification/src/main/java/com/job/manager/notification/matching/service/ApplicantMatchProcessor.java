@@ -0,0 +1,146 @@
+package com.job.manager.notification.matching.service;
+
+import com.job.manager.notification.dto.ApplicantMatchedEvent;
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import com.job.manager.notification.matching.index.SearchProfileIndex;
+import com.job.manager.notification.matching.kafka.ApplicantMatchedKafkaProducer;
+import com.job.manager.notification.matching.model.RankedMatches;
+import com.job.manager.notification.matching.model.ScoredMatch;
+import com.job.manager.notification.metrics.MatchingMetrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Matches one applicant event against the index and publishes the matched companies
+ * that have not already been notified for the same version of the applicant to the
+ * delivery stage. Only the {@code matching.ranking.top-k} best-scoring companies are
+ * published right away; the rest are deferred to the {@link MatchDigestService}. Companies
+ * are recorded as processed once the broker has acknowledged their matches, so a
+ * redelivery after a failure only publishes the remaining companies.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ApplicantMatchProcessor {
+
+    private final SearchProfileIndex searchProfileIndex;
+    private final ShadowMatchingEngine shadowMatchingEngine;
+    private final ApplicantMatchedKafkaProducer applicantMatchedKafkaProducer;
+    private final ProcessedMatchStore processedMatchStore;
+    private final ProfileBackfillService profileBackfillService;
+    private final MatchingMetrics matchingMetrics;
+    private final MatchDigestService matchDigestService;
+
+    @Value("${matching.ranking.top-k:50}")
+    private int topK;
+
+    public void process(ApplicantCreatedEvent event) {
+        long startTime = System.currentTimeMillis();
+        Timer.Sample sample = matchingMetrics.startEvent();
+
+        try {
+            profileBackfillService.recordApplicant(event);
+
+            if (searchProfileIndex.isEmpty()) {
+                log.warn("No company search profiles available for matching applicant {}", event.getApplicantId());
+                return;
+            }
+
+            List<ScoredMatch> matches = shadowMatchingEngine.findMatches(event);
+            log.info("Matching complete: applicant {} matched with {} out of {} companies",
+                    event.getApplicantId(), matches.size(), searchProfileIndex.size());
+
+            if (matches.isEmpty()) {
+                log.info("No matches found for applicant {} (country: {}, skills: {})",
+                        event.getApplicantId(), event.getCountry(), event.getSkills());
+            }
+
+            RankedMatches ranked = rankUnprocessed(event, matches);
+            applicantMatchedKafkaProducer.publish(ranked.immediate().stream()
+                    .map(match -> toMatchedEvent(match, event))
+                    .toList());
+            processedMatchStore.markProcessed(event, ranked.immediate().stream()
+                    .map(ScoredMatch::companyId)
+                    .toList());
+            deferToDigest(event, ranked);
+
+            long duration = System.currentTimeMillis() - startTime;
+            log.info("Successfully processed applicant {} - published {} matches in {}ms",
+                    event.getApplicantId(), ranked.immediate().size(), duration);
+            matchingMetrics.eventProcessed(sample);
+
+        } catch (Exception e) {
+            log.error("Error processing applicant event for {}: {}",
+                    event.getApplicantId(), e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Drop the companies already notified about this version of the applicant, then split
+     * the rest into the top K to notify now and the lower-ranked ones for the digest.
+     */
+    public RankedMatches rankUnprocessed(ApplicantCreatedEvent event, List<ScoredMatch> matches) {
+        return rank(event, matches, processedMatchStore.unprocessed(event,
+                matches.stream().map(ScoredMatch::companyId).toList()));
+    }
+
+    /**
+     * As {@link #rankUnprocessed(ApplicantCreatedEvent, List)}, against processed ids
+     * prefetched for the whole batch, so it does no I/O.
+     */
+    public RankedMatches rankUnprocessed(ApplicantCreatedEvent event, List<ScoredMatch> matches,
+                                         Set<String> processedIds) {
+        return rank(event, matches, ProcessedMatchStore.unprocessed(event,
+                matches.stream().map(ScoredMatch::companyId).toList(), processedIds));
+    }
+
+    private RankedMatches rank(ApplicantCreatedEvent event, List<ScoredMatch> matches, List<String> unprocessedIds) {
+        Set<String> unprocessed = Set.copyOf(unprocessedIds);
+        if (unprocessed.size() < matches.size()) {
+            log.info("Skipping {} companies already notified about this version of applicant {}",
+                    matches.size() - unprocessed.size(), event.getApplicantId());
+        }
+        return RankedMatches.of(matches.stream()
+                .filter(match -> unprocessed.contains(match.companyId()))
+                .toList(), topK);
+    }
+
+    /**
+     * Store the lower-ranked matches for the digest and mark them processed, so a
+     * redelivery neither notifies nor defers them again.
+     */
+    public void deferToDigest(ApplicantCreatedEvent event, RankedMatches ranked) {
+        if (ranked.deferred().isEmpty()) {
+            return;
+        }
+        matchDigestService.defer(event, ranked.deferred());
+        processedMatchStore.markProcessed(event, ranked.deferred().stream()
+                .map(ScoredMatch::companyId)
+                .collect(Collectors.toList()));
+        log.info("Deferred {} lower-ranked matches of applicant {} to the digest",
+                ranked.deferred().size(), event.getApplicantId());
+    }
+
+    public static ApplicantMatchedEvent toMatchedEvent(ScoredMatch match, ApplicantCreatedEvent event) {
+        ApplicantMatchedEvent matchedEvent = toMatchedEvent(match.companyId(), event);
+        matchedEvent.setScore(match.score());
+        return matchedEvent;
+    }
+
+    public static ApplicantMatchedEvent toMatchedEvent(String companyId, ApplicantCreatedEvent event) {
+        ApplicantMatchedEvent matchedEvent = new ApplicantMatchedEvent();
+        matchedEvent.setCompanyId(companyId);
+        matchedEvent.setApplicantId(event.getApplicantId());
+        matchedEvent.setApplicantName(event.getFullName());
+        matchedEvent.setEventVersion(ProcessedMatchStore.eventVersion(event));
+        return matchedEvent;
+    }
+}
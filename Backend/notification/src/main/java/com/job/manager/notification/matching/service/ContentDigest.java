@@ -0,0 +1,44 @@
+package com.job.manager.notification.matching.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.stream.Collectors;
+
+/**
+ * Content version of a set of matching fields: the first 128 bits of a SHA-256 digest,
+ * which is plenty against accidental collisions between two versions of one applicant
+ * or profile. Collections are sorted and amounts scale-normalized first, since neither
+ * their order nor "5000" vs "5000.00" is a real change.
+ */
+final class ContentDigest {
+
+    private ContentDigest() {
+    }
+
+    static String of(Object... parts) {
+        String content = Arrays.stream(parts)
+                .map(ContentDigest::canonical)
+                .collect(Collectors.joining("\0"));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String canonical(Object part) {
+        if (part instanceof Collection<?> values) {
+            return values.stream().map(String::valueOf).sorted().collect(Collectors.joining(","));
+        }
+        if (part instanceof BigDecimal amount) {
+            return amount.stripTrailingZeros().toPlainString();
+        }
+        return String.valueOf(part);
+    }
+}
@@ -0,0 +1,317 @@
+package com.job.manager.notification.matching.service;
+
+import com.job.manager.notification.dto.ApplicantMatchedEvent;
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import com.job.manager.notification.matching.model.ScoredMatch;
+import com.job.manager.notification.model.AccumulatedMatch;
+import com.job.manager.notification.model.DeferredMatch;
+import com.job.manager.notification.repository.DeferredMatchRepository;
+import com.job.manager.notification.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Low-priority path for matches ranked below an applicant's top K: they are stored in
+ * {@code deferred_matches} and periodically sent as one digest notification per company.
+ *
+ * With {@code notification.digest.enabled=true} the delivery stage routes every match here
+ * too, and otherwise the matches of companies over their delivery rate limit. A company's matches are then held until the oldest has waited
+ * {@code notification.digest.window-ms} or {@code notification.digest.max-matches} have
+ * piled up, and are flushed as one notification, one WebSocket message and one email,
+ * together with any of the company's ranked-out matches. Digests are sent in batches of
+ * at most {@code notification.digest.batch-size} matches, claimed with a lease of
+ * {@code notification.digest.lease-ms} so every instance can run the schedules.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MatchDigestService {
+
+    private final DeferredMatchRepository deferredMatchRepository;
+    private final MongoTemplate mongoTemplate;
+    private final NotificationService notificationService;
+
+    @Value("${notification.digest.window-ms:60000}")
+    private long windowMs;
+
+    @Value("${notification.digest.max-matches:100}")
+    private int maxMatches;
+
+    @Value("${notification.digest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${notification.digest.lease-ms:60000}")
+    private long leaseMs;
+
+    public void defer(ApplicantCreatedEvent applicant, List<ScoredMatch> matches) {
+        defer(Map.of(applicant, matches));
+    }
+
+    /**
+     * Store the ranked-out matches of several applicants with one unordered bulk write.
+     * Like a save, each replaces an earlier version of the match, claim included.
+     */
+    public void defer(Map<ApplicantCreatedEvent, List<ScoredMatch>> matchesByApplicant) {
+        Instant now = Instant.now();
+        List<DeferredMatch> deferred = matchesByApplicant.entrySet().stream()
+                .flatMap(entry -> entry.getValue().stream()
+                        .map(match -> DeferredMatch.builder()
+                                .id(entry.getKey().getApplicantId() + ":" + match.companyId())
+                                .companyId(match.companyId())
+                                .applicantId(entry.getKey().getApplicantId())
+                                .applicantName(entry.getKey().getFullName())
+                                .score(match.score())
+                                .deferredAt(now)
+                                .build()))
+                .toList();
+        if (deferred.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DeferredMatch.class);
+        deferred.forEach(match -> bulk.replaceOne(new Query(Criteria.where("_id").is(match.getId())),
+                match, FindAndReplaceOptions.options().upsert()));
+        bulk.execute();
+    }
+
+    /**
+     * Hold delivered matches for their company's digest window. Matches held before are
+     * skipped, since their window may have been flushed already; they are recorded as held
+     * only after saving, so a failure in between holds them again on redelivery.
+     */
+    public void accumulate(List<ApplicantMatchedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Set<String> held = accumulatedKeys(events);
+        List<ApplicantMatchedEvent> fresh = events.stream()
+                .filter(event -> {
+                    String key = NotificationService.dedupeKey(event);
+                    return key == null || !held.contains(key);
+                })
+                .toList();
+        if (fresh.size() < events.size()) {
+            log.info("Skipping {} redelivered matches already held for a digest", events.size() - fresh.size());
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        deferredMatchRepository.saveAll(fresh.stream()
+                .map(event -> DeferredMatch.builder()
+                        .id(event.getApplicantId() + ":" + event.getCompanyId())
+                        .companyId(event.getCompanyId())
+                        .applicantId(event.getApplicantId())
+                        .applicantName(event.getApplicantName())
+                        .score(event.getScore() != null ? event.getScore() : 0)
+                        .deferredAt(now)
+                        .windowed(true)
+                        .build())
+                .toList());
+
+        List<String> keys = fresh.stream()
+                .map(NotificationService::dedupeKey)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (!keys.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AccumulatedMatch.class);
+            keys.forEach(key -> bulk.replaceOne(new Query(Criteria.where("_id").is(key)),
+                    AccumulatedMatch.builder().id(key).accumulatedAt(now).build(),
+                    FindAndReplaceOptions.options().upsert()));
+            bulk.execute();
+        }
+    }
+
+    /**
+     * @return Dedupe keys of these matches that were held before; matches without one never are
+     */
+    private Set<String> accumulatedKeys(List<ApplicantMatchedEvent> events) {
+        List<String> keys = events.stream()
+                .map(NotificationService::dedupeKey)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (keys.isEmpty()) {
+            return Set.of();
+        }
+        Query query = new Query(Criteria.where("_id").in(keys));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, AccumulatedMatch.class).stream()
+                .map(AccumulatedMatch::getId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Flush the digest of every company whose window has elapsed or whose held matches
+     * reached the threshold. Matches claimed by a run on another instance are skipped, so
+     * a window is flushed once however many instances poll it.
+     */
+    @Scheduled(fixedDelayString = "${notification.digest.poll-interval-ms:5000}")
+    public void flushDueWindows() {
+        Instant now = Instant.now();
+        List<String> companyIds = companies(
+                new Criteria().andOperator(Criteria.where("windowed").is(true), unclaimed(now)),
+                Aggregation.match(new Criteria().orOperator(
+                        Criteria.where("oldest").lte(now.minusMillis(windowMs)),
+                        Criteria.where("count").gte(maxMatches))));
+
+        int flushed = 0;
+        for (String companyId : companyIds) {
+            flushed += flushCompany(companyId) ? 1 : 0;
+        }
+        if (flushed > 0) {
+            log.info("Flushed windowed digests to {} companies", flushed);
+        }
+    }
+
+    /**
+     * Send one digest per company with deferred matches, best first, then drop them.
+     * Each company's matches are claimed in batches, so only one batch is held in memory
+     * and concurrent instances never send the same match.
+     */
+    @Scheduled(
+            fixedDelayString = "${matching.ranking.digest-interval-ms:3600000}",
+            initialDelayString = "${matching.ranking.digest-interval-ms:3600000}"
+    )
+    public void sendDigests() {
+        int sent = 0;
+        for (String companyId : companies(unclaimed(Instant.now()), null)) {
+            sent += flushCompany(companyId) ? 1 : 0;
+        }
+        if (sent > 0) {
+            log.info("Sent match digests to {} companies", sent);
+        }
+    }
+
+    /**
+     * Companies with matches meeting the criteria, grouped with the oldest match and the
+     * count, optionally filtered on those. Spills to disk instead of failing on many companies.
+     */
+    private List<String> companies(Criteria matches, AggregationOperation groupFilter) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(matches));
+        stages.add(Aggregation.group("companyId").min("deferredAt").as("oldest").count().as("count"));
+        if (groupFilter != null) {
+            stages.add(groupFilter);
+        }
+        Aggregation aggregation = Aggregation.newAggregation(stages)
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+        return mongoTemplate.aggregate(aggregation, DeferredMatch.class, Document.class)
+                .getMappedResults().stream()
+                .map(result -> result.getString("_id"))
+                .toList();
+    }
+
+    /**
+     * Claim and send the company's matches batch by batch, stopping at the first failure.
+     * @return True if at least one digest was sent
+     */
+    private boolean flushCompany(String companyId) {
+        boolean sent = false;
+        List<DeferredMatch> claimed;
+        do {
+            String claimToken = UUID.randomUUID().toString();
+            claimed = claim(companyId, claimToken);
+            if (claimed.isEmpty()) {
+                break;
+            }
+            if (!sendDigest(companyId, claimed, claimToken)) {
+                break;
+            }
+            sent = true;
+        } while (claimed.size() == batchSize);
+        return sent;
+    }
+
+    /**
+     * Mark the company's best {@code batch-size} unclaimed matches, including ones whose
+     * lease expired, as claimed by this run, like the email outbox does.
+     */
+    private List<DeferredMatch> claim(String companyId, String claimToken) {
+        Instant now = Instant.now();
+        Criteria claimable = new Criteria().andOperator(Criteria.where("companyId").is(companyId), unclaimed(now));
+
+        Query candidates = new Query(claimable).with(Sort.by(Sort.Order.desc("score"))).limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, DeferredMatch.class).stream()
+                .map(DeferredMatch::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        mongoTemplate.updateMulti(
+                new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable)),
+                new Update()
+                        .set("claimedBy", claimToken)
+                        .set("leaseUntil", now.plusMillis(leaseMs)),
+                DeferredMatch.class);
+        return mongoTemplate.find(new Query(Criteria.where("claimedBy").is(claimToken))
+                .with(Sort.by(Sort.Order.desc("score"))), DeferredMatch.class);
+    }
+
+    private static Criteria unclaimed(Instant now) {
+        return new Criteria().orOperator(
+                Criteria.where("leaseUntil").is(null),
+                Criteria.where("leaseUntil").lt(now));
+    }
+
+    /**
+     * Send the claimed matches as one digest, then drop the ones still claimed by this run.
+     * A match saved again meanwhile lost the claim and waits for the next digest.
+     * The digest's dedupe key is derived from the claimed matches and their versions, not
+     * the claim token, so a retry of the same matches after a failure that happened after
+     * the digest was stored does not send it twice.
+     */
+    private boolean sendDigest(String companyId, List<DeferredMatch> matches, String claimToken) {
+        String dedupeKey = "digest:" + companyId + ":" + ContentDigest.of(matches.stream()
+                .map(match -> match.getId() + "@" + match.getDeferredAt().toEpochMilli())
+                .toList());
+        try {
+            notificationService.handleMatchDigest(companyId, matches.stream()
+                    .map(match -> {
+                        ApplicantMatchedEvent event = new ApplicantMatchedEvent();
+                        event.setCompanyId(companyId);
+                        event.setApplicantId(match.getApplicantId());
+                        event.setApplicantName(match.getApplicantName());
+                        event.setScore(match.getScore());
+                        return event;
+                    })
+                    .toList(), dedupeKey);
+        } catch (Exception e) {
+            // Kept for the next run
+            log.warn("Failed to send match digest to company {}: {}", companyId, e.getMessage());
+            mongoTemplate.updateMulti(
+                    new Query(Criteria.where("claimedBy").is(claimToken)),
+                    new Update().unset("claimedBy").unset("leaseUntil"),
+                    DeferredMatch.class);
+            return false;
+        }
+        mongoTemplate.remove(new Query(Criteria.where("claimedBy").is(claimToken)), DeferredMatch.class);
+        return true;
+    }
+}
@@ -2,29 +2,51 @@ package com.job.manager.notification.matching.service;
 
 import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
 import com.job.manager.notification.matching.dto.CompanySearchProfileDto;
+import com.job.manager.notification.matching.index.CompiledApplicant;
+import com.job.manager.notification.matching.index.CompiledProfile;
+import com.job.manager.notification.matching.index.SearchProfileIndex;
+import com.job.manager.notification.matching.index.SkillCanonicalizer;
+import com.job.manager.notification.matching.index.TagDictionary;
+import com.job.manager.notification.matching.model.EducationDegree;
+import com.job.manager.notification.matching.model.EmploymentStatus;
+import com.job.manager.notification.matching.model.ScoredMatch;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class MatchingEngine {
 
+    private static final double TAG_WEIGHT = 0.6;
+    private static final double SALARY_WEIGHT = 0.25;
+    private static final double OPTIONAL_WEIGHT = 0.15;
+    // Fit on a dimension one side left open
+    private static final double NEUTRAL_FIT = 0.5;
+
+    private final SkillCanonicalizer skillCanonicalizer;
+
     public boolean matches(ApplicantCreatedEvent applicant, CompanySearchProfileDto profile) {
         String applicantId = applicant.getApplicantId();
         String companyId = profile.getCompanyId();
 
         log.debug("Evaluating match: applicant {} vs company profile {}", applicantId, companyId);
 
-        // Country matching (required)
-        if (applicant.getCountry() == null || profile.getCountry() == null) {
+        // Country matching (required), normalized the same way the index keys countries
+        String applicantCountry = TagDictionary.normalize(applicant.getCountry());
+        String profileCountry = TagDictionary.normalize(profile.getCountry());
+        if (applicantCountry == null || profileCountry == null) {
             log.debug("Match failed (null country): applicant {} (country: {}) vs company {} (country: {})",
                     applicantId, applicant.getCountry(), companyId, profile.getCountry());
             return false;
         }
-        if (!applicant.getCountry().equalsIgnoreCase(profile.getCountry())) {
+        if (!applicantCountry.equals(profileCountry)) {
             log.debug("Match failed (country mismatch): applicant {} ({}) vs company {} ({})",
                     applicantId, applicant.getCountry(), companyId, profile.getCountry());
             return false;
@@ -37,22 +59,100 @@ public class MatchingEngine {
             return false;
         }
 
-        List<String> matchingSkills = applicant.getSkills().stream()
-                .filter(skill -> profile.getTechnicalTags().stream()
-                        .anyMatch(tag -> tag.equalsIgnoreCase(skill)))
-                .toList();
-
-        boolean hasTagOverlap = !matchingSkills.isEmpty();
+        boolean hasTagOverlap = applicant.getSkills().stream()
+                .map(skillCanonicalizer::canonicalize)
+                .filter(Objects::nonNull)
+                .anyMatch(skill -> profile.getTechnicalTags().stream()
+                        .anyMatch(tag -> skill.equals(skillCanonicalizer.canonicalize(tag))));
         if (!hasTagOverlap) {
             log.debug("Match failed (no skill overlap): applicant {} (skills: {}) vs company {} (tags: {})",
                     applicantId, applicant.getSkills(), companyId, profile.getTechnicalTags());
             return false;
         }
 
-        log.debug("Skills matched: {} - applicant {} with company {}",
-                matchingSkills, applicantId, companyId);
+        // Employment status and education (only when both sides state them)
+        if (!employmentAndEducationMatch(
+                EmploymentStatus.mask(applicant.getEmploymentTypes()),
+                EducationDegree.rank(applicant.getHighestEducationDegree()),
+                EmploymentStatus.mask(profile.getEmploymentStatus()),
+                EducationDegree.rank(profile.getHighestEducationDegree()))) {
+            log.debug("Match failed (employment/education): applicant {} ({}, {}) vs company {} ({}, {})",
+                    applicantId, applicant.getEmploymentTypes(), applicant.getHighestEducationDegree(),
+                    companyId, profile.getEmploymentStatus(), profile.getHighestEducationDegree());
+            return false;
+        }
+
+        return salaryOverlaps(applicant, profile);
+    }
+
+    /**
+     * Same decision as {@link #matches(ApplicantCreatedEvent, CompanySearchProfileDto)} on
+     * pre-compiled inputs: country is a plain equals on the normalized value, tag overlap is a
+     * linear merge over sorted ids and salary is two long compares, with no allocation.
+     */
+    public boolean matches(CompiledApplicant applicant, CompiledProfile profile) {
+        if (applicant.country() == null || !applicant.country().equals(profile.country())) {
+            return false;
+        }
+        if (!TagDictionary.overlaps(applicant.skillIds(), profile.tagIds())) {
+            return false;
+        }
+        if (!employmentAndEducationMatch(applicant.employmentMask(), applicant.degreeRank(),
+                profile.employmentMask(), profile.minDegreeRank())) {
+            return false;
+        }
+        // Unset bounds were compiled to open ends, so this equals the BigDecimal check
+        return applicant.salaryMax() >= profile.salaryMin() && applicant.salaryMin() <= profile.salaryMax();
+    }
+
+    /**
+     * Relevance of a profile the applicant matches, in [0, 1]: the share of the profile's
+     * tags the applicant has, how much of the profile's salary range the applicant's range
+     * covers, and whether employment status and education were stated on both sides.
+     * Dimensions a side left open score {@value #NEUTRAL_FIT}.
+     */
+    public double score(CompiledApplicant applicant, CompiledProfile profile) {
+        double tags = (double) TagDictionary.overlapCount(applicant.skillIds(), profile.tagIds())
+                / Math.max(1, profile.tagIds().length);
+        double employment = profile.employmentMask() == 0 || applicant.employmentMask() == 0 ? NEUTRAL_FIT : 1.0;
+        double education = profile.minDegreeRank() < 0 || applicant.degreeRank() < 0 ? NEUTRAL_FIT : 1.0;
+        return TAG_WEIGHT * tags
+                + SALARY_WEIGHT * salaryFit(applicant, profile)
+                + OPTIONAL_WEIGHT * (employment + education) / 2;
+    }
+
+    private static double salaryFit(CompiledApplicant applicant, CompiledProfile profile) {
+        boolean applicantStated = applicant.salaryMin() != Long.MIN_VALUE || applicant.salaryMax() != Long.MAX_VALUE;
+        if (!applicantStated) {
+            return NEUTRAL_FIT;
+        }
+        if (profile.salaryMax() == Long.MAX_VALUE) {
+            return profile.salaryMin() == 0 ? NEUTRAL_FIT : 1.0;
+        }
+        long width = profile.salaryMax() - profile.salaryMin();
+        if (width <= 0) {
+            return 1.0;
+        }
+        long low = Math.max(applicant.salaryMin(), profile.salaryMin());
+        long high = Math.min(applicant.salaryMax(), profile.salaryMax());
+        return Math.min(1.0, Math.max(0.0, (double) (high - low) / width));
+    }
+
+    /**
+     * A profile with no employment statuses or no degree accepts anyone on that dimension,
+     * and so does an applicant who did not state it. Otherwise the applicant must share
+     * at least one employment status and hold at least the profile's degree.
+     */
+    private static boolean employmentAndEducationMatch(
+            int applicantMask, int applicantRank, int profileMask, int profileMinRank) {
+        return (profileMask == 0 || applicantMask == 0 || (profileMask & applicantMask) != 0)
+                && (profileMinRank < 0 || applicantRank < 0 || applicantRank >= profileMinRank);
+    }
+
+    private boolean salaryOverlaps(ApplicantCreatedEvent applicant, CompanySearchProfileDto profile) {
+        String applicantId = applicant.getApplicantId();
+        String companyId = profile.getCompanyId();
 
-        // Salary range matching
         BigDecimal profileMin = profile.getSalaryMin() != null ? profile.getSalaryMin() : BigDecimal.ZERO;
         BigDecimal profileMax = profile.getSalaryMax();
         BigDecimal applicantMin = applicant.getMinSalary();
@@ -77,9 +177,8 @@ public class MatchingEngine {
             return false;
         }
 
-        log.info("✓ Match successful: applicant {} matched with company {} (country: {}, skills: {}, salary overlap: {}-{} vs {}-{})",
-                applicantId, companyId, applicant.getCountry(), matchingSkills,
-                applicantMin, applicantMax, profileMin, profileMax);
+        log.debug("Match successful: applicant {} matched with company {} (salary overlap: {}-{} vs {}-{})",
+                applicantId, companyId, applicantMin, applicantMax, profileMin, profileMax);
 
         return true;
     }
@@ -93,5 +192,59 @@ public class MatchingEngine {
                 .map(CompanySearchProfileDto::getCompanyId)
                 .toList();
     }
-}
 
+    /**
+     * Same result as the brute-force overload, but only evaluates the profiles
+     * that share the applicant's country and at least one tag.
+     */
+    public List<String> findMatchingCompanyIds(
+            ApplicantCreatedEvent applicant,
+            SearchProfileIndex index
+    ) {
+        return findMatchingCompanyIds(index.compile(applicant), index.snapshot());
+    }
+
+    /**
+     * Match a compiled applicant against one fixed index snapshot.
+     * Safe to call concurrently: the snapshot is immutable and nothing here is shared.
+     */
+    public List<String> findMatchingCompanyIds(
+            CompiledApplicant applicant,
+            SearchProfileIndex.Snapshot snapshot
+    ) {
+        return findMatchingCompanyIds(applicant, snapshot.candidates(applicant));
+    }
+
+    /**
+     * Evaluate the full predicate on candidates already selected from a snapshot.
+     */
+    public List<String> findMatchingCompanyIds(
+            CompiledApplicant applicant,
+            List<CompiledProfile> candidates
+    ) {
+        List<String> matched = new ArrayList<>();
+        for (CompiledProfile profile : candidates) {
+            if (matches(applicant, profile)) {
+                matched.add(profile.companyId());
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Like {@link #findMatchingCompanyIds(CompiledApplicant, List)}, with the relevance
+     * score of every match.
+     */
+    public List<ScoredMatch> findScoredMatches(
+            CompiledApplicant applicant,
+            List<CompiledProfile> candidates
+    ) {
+        List<ScoredMatch> matched = new ArrayList<>();
+        for (CompiledProfile profile : candidates) {
+            if (matches(applicant, profile)) {
+                matched.add(new ScoredMatch(profile.companyId(), score(applicant, profile)));
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,88 @@
+package com.job.manager.notification.matching.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The share of countries this instance matches. Applicant events are keyed by normalized
+ * country, so Kafka's partitioner places a country on partition
+ * {@code murmur2(country) % partitions}; the instance owning that partition of
+ * applicant-profile-updates in the matching consumer group owns the country and is the
+ * only one that indexes its profiles. With {@code matching.sharding.enabled=false}
+ * every instance owns every country.
+ */
+@Slf4j
+@Service
+public class MatchingShard {
+
+    private final boolean enabled;
+
+    private final Set<Integer> ownedPartitions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong version = new AtomicLong();
+    private volatile int partitionCount;
+
+    public MatchingShard(@Value("${matching.sharding.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param countryKey Country normalized as by {@code TagDictionary.normalize}
+     */
+    public boolean owns(String countryKey) {
+        if (!enabled) {
+            return true;
+        }
+        if (countryKey == null || partitionCount == 0) {
+            return false;
+        }
+        return ownedPartitions.contains(partitionFor(countryKey, partitionCount));
+    }
+
+    /**
+     * @return The applicant-profile-updates partitions this instance currently owns
+     */
+    public Set<Integer> ownedPartitions() {
+        return Set.copyOf(ownedPartitions);
+    }
+
+    public void assign(Collection<Integer> partitions, int partitionCount) {
+        this.partitionCount = partitionCount;
+        if (ownedPartitions.addAll(partitions)) {
+            version.incrementAndGet();
+        }
+        log.info("Matching shard now owns partitions {} of {}", ownedPartitions, partitionCount);
+    }
+
+    public void revoke(Collection<Integer> partitions) {
+        if (ownedPartitions.removeAll(partitions)) {
+            version.incrementAndGet();
+        }
+        log.info("Matching shard released partitions {}, still owns {}", partitions, ownedPartitions);
+    }
+
+    /**
+     * @return A counter that increases whenever the owned partitions change
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Same placement as Kafka's default partitioner for a keyed record.
+     */
+    static int partitionFor(String countryKey, int partitionCount) {
+        return Utils.toPositive(Utils.murmur2(countryKey.getBytes(StandardCharsets.UTF_8))) % partitionCount;
+    }
+}
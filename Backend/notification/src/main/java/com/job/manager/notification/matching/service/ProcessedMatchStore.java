@@ -0,0 +1,271 @@
+package com.job.manager.notification.matching.service;
+
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import com.job.manager.notification.matching.index.BloomFilter;
+import com.job.manager.notification.model.ProcessedMatch;
+import com.job.manager.notification.repository.ProcessedMatchRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Records which companies were notified about which version of an applicant, keyed by
+ * {@code (applicantId, eventVersion, companyId)}, so a redelivered or unchanged event
+ * does not notify anyone twice. The collection is authoritative. A local Bloom filter
+ * answers the common "never seen" case without a Mongo read, but only while it is
+ * trusted: it was loaded after this instance's current partition assignment, so every
+ * record written by a previous owner of those partitions is in it. Until a rebalance has
+ * been followed by a reload, every key is checked against the collection.
+ * The event version is the producer's {@code eventVersion} when set, otherwise a
+ * SHA-256 digest of the applicant's matching-relevant fields.
+ */
+@Slf4j
+@Service
+public class ProcessedMatchStore {
+
+    private final ProcessedMatchRepository processedMatchRepository;
+    private final MongoTemplate mongoTemplate;
+    private final BloomFilter seen;
+
+    // Bumped on every rebalance of the matching consumer; the filter is trusted for one epoch
+    private final AtomicLong assignmentEpoch = new AtomicLong();
+    private volatile long trustedEpoch = -1;
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "processed-match-filter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProcessedMatchStore(
+            ProcessedMatchRepository processedMatchRepository,
+            MongoTemplate mongoTemplate,
+            @Value("${matching.idempotency.expected-entries:1000000}") long expectedEntries,
+            @Value("${matching.idempotency.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
+        this.processedMatchRepository = processedMatchRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.seen = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        requestLoad();
+    }
+
+    @PreDestroy
+    void stop() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * Partitions of the matching consumer were assigned or revoked: records written by
+     * their previous owner may be missing from the filter until it is reloaded.
+     */
+    public void assignmentChanged() {
+        assignmentEpoch.incrementAndGet();
+        requestLoad();
+    }
+
+    private boolean filterTrusted() {
+        return trustedEpoch == assignmentEpoch.get();
+    }
+
+    private void requestLoad() {
+        if (loading.compareAndSet(false, true)) {
+            loader.execute(this::load);
+        }
+    }
+
+    /**
+     * Load the ids of all retained records into the Bloom filter, then trust it if no
+     * rebalance happened meanwhile; otherwise load again.
+     */
+    private void load() {
+        long epoch = assignmentEpoch.get();
+        long count = 0;
+        try {
+            Query query = new Query();
+            query.fields().include("_id");
+            try (Stream<ProcessedMatch> stream = mongoTemplate.stream(query, ProcessedMatch.class)) {
+                for (ProcessedMatch match : (Iterable<ProcessedMatch>) stream::iterator) {
+                    seen.put(match.getId());
+                    count++;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Loading the processed-match Bloom filter failed, checking every key in Mongo: {}", e.getMessage());
+            loading.set(false);
+            return;
+        }
+        loading.set(false);
+
+        if (assignmentEpoch.get() == epoch) {
+            trustedEpoch = epoch;
+            log.info("Processed-match Bloom filter loaded with {} entries", count);
+        } else {
+            requestLoad();
+        }
+    }
+
+    /**
+     * @return The companies not yet notified for this version of the applicant
+     */
+    public List<String> unprocessed(ApplicantCreatedEvent applicant, List<String> companyIds) {
+        String version = eventVersion(applicant);
+        boolean trusted = filterTrusted();
+        Set<String> maybeSeen = new HashSet<>();
+        for (String companyId : companyIds) {
+            String key = key(applicant.getApplicantId(), version, companyId);
+            if (!trusted || seen.mightContain(key)) {
+                maybeSeen.add(key);
+            }
+        }
+        if (maybeSeen.isEmpty()) {
+            return companyIds;
+        }
+
+        Set<String> processed = new HashSet<>();
+        processedMatchRepository.findAllById(maybeSeen).forEach(match -> processed.add(match.getId()));
+        if (processed.isEmpty()) {
+            return companyIds;
+        }
+        return companyIds.stream()
+                .filter(companyId -> !processed.contains(key(applicant.getApplicantId(), version, companyId)))
+                .toList();
+    }
+
+    /**
+     * @return The applicants whose version the company was not yet notified about,
+     * checked with at most one read for the whole list
+     */
+    public List<ApplicantCreatedEvent> unprocessedApplicants(String companyId, List<ApplicantCreatedEvent> applicants) {
+        boolean trusted = filterTrusted();
+        Set<String> maybeSeen = new HashSet<>();
+        for (ApplicantCreatedEvent applicant : applicants) {
+            String key = key(applicant.getApplicantId(), eventVersion(applicant), companyId);
+            if (!trusted || seen.mightContain(key)) {
+                maybeSeen.add(key);
+            }
+        }
+        if (maybeSeen.isEmpty()) {
+            return applicants;
+        }
+
+        Set<String> processed = new HashSet<>();
+        processedMatchRepository.findAllById(maybeSeen).forEach(match -> processed.add(match.getId()));
+        if (processed.isEmpty()) {
+            return applicants;
+        }
+        return applicants.stream()
+                .filter(applicant -> !processed.contains(
+                        key(applicant.getApplicantId(), eventVersion(applicant), companyId)))
+                .toList();
+    }
+
+    /**
+     * Ids of the records of these versions of the applicants, read with one query, so a
+     * batch can be checked with {@link #unprocessed(ApplicantCreatedEvent, List, Set)}
+     * without further reads.
+     */
+    public Set<String> processedIds(Collection<ApplicantCreatedEvent> applicants) {
+        if (applicants.isEmpty()) {
+            return Set.of();
+        }
+        Query query = new Query(Criteria.where("applicantId")
+                .in(applicants.stream().map(ApplicantCreatedEvent::getApplicantId).distinct().toList())
+                .and("eventVersion")
+                .in(applicants.stream().map(ProcessedMatchStore::eventVersion).distinct().toList()));
+        query.fields().include("_id");
+
+        Set<String> ids = new HashSet<>();
+        mongoTemplate.find(query, ProcessedMatch.class).forEach(match -> ids.add(match.getId()));
+        return ids;
+    }
+
+    /**
+     * @param processedIds From {@link #processedIds(Collection)} for a batch including the applicant
+     * @return The companies not yet notified for this version of the applicant
+     */
+    public static List<String> unprocessed(ApplicantCreatedEvent applicant, List<String> companyIds,
+                                           Set<String> processedIds) {
+        if (processedIds.isEmpty()) {
+            return companyIds;
+        }
+        String version = eventVersion(applicant);
+        return companyIds.stream()
+                .filter(companyId -> !processedIds.contains(key(applicant.getApplicantId(), version, companyId)))
+                .toList();
+    }
+
+    public void markProcessed(ApplicantCreatedEvent applicant, Collection<String> companyIds) {
+        markProcessed(Map.of(applicant, companyIds));
+    }
+
+    /**
+     * Record the companies of several applicants with one unordered bulk write.
+     */
+    public void markProcessed(Map<ApplicantCreatedEvent, ? extends Collection<String>> companyIdsByApplicant) {
+        Instant now = Instant.now();
+        List<ProcessedMatch> matches = companyIdsByApplicant.entrySet().stream()
+                .flatMap(entry -> {
+                    ApplicantCreatedEvent applicant = entry.getKey();
+                    String version = eventVersion(applicant);
+                    return entry.getValue().stream()
+                            .map(companyId -> ProcessedMatch.builder()
+                                    .id(key(applicant.getApplicantId(), version, companyId))
+                                    .applicantId(applicant.getApplicantId())
+                                    .eventVersion(version)
+                                    .companyId(companyId)
+                                    .processedAt(now)
+                                    .build());
+                })
+                .toList();
+        if (matches.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProcessedMatch.class);
+        matches.forEach(match -> bulk.replaceOne(new Query(Criteria.where("_id").is(match.getId())),
+                match, FindAndReplaceOptions.options().upsert()));
+        bulk.execute();
+        matches.forEach(match -> seen.put(match.getId()));
+    }
+
+    static String eventVersion(ApplicantCreatedEvent applicant) {
+        if (applicant.getEventVersion() != null) {
+            return String.valueOf(applicant.getEventVersion());
+        }
+        return "d" + ContentDigest.of(
+                applicant.getCountry(),
+                applicant.getSkills(),
+                applicant.getEmploymentTypes(),
+                applicant.getHighestEducationDegree(),
+                applicant.getMinSalary(),
+                applicant.getMaxSalary());
+    }
+
+    private static String key(String applicantId, String version, String companyId) {
+        return applicantId + ":" + version + ":" + companyId;
+    }
+}
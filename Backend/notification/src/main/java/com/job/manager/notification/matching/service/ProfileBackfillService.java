@@ -0,0 +1,361 @@
+package com.job.manager.notification.matching.service;
+
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import com.job.manager.notification.matching.dto.CompanySearchProfileDto;
+import com.job.manager.notification.matching.index.CompiledProfile;
+import com.job.manager.notification.matching.index.SearchProfileIndex;
+import com.job.manager.notification.matching.index.TagDictionary;
+import com.job.manager.notification.matching.kafka.ApplicantMatchedKafkaProducer;
+import com.job.manager.notification.model.ApplicantSnapshot;
+import com.job.manager.notification.model.ProfileBackfill;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Reverse matching: when a company creates or changes its search profile, stream the
+ * existing applicants of that country through a Mongo cursor in bounded batches and
+ * notify the company about the ones that match. Backfills run one at a time on a
+ * dedicated thread and are paced to {@code max-notifications-per-second}, so one upsert
+ * cannot flood delivery. Memory use is one batch, independent of applicant count.
+ *
+ * Every instance sees every profile change, so each backfill is claimed per company and
+ * profile version in {@code profile_backfills}; only the instance holding the claim runs
+ * it, and a claim abandoned by a crashed instance is resumed by whichever instance sweeps
+ * it up first. Applicants are only known from the events seen since this service started
+ * recording them; older ones can be seeded with the replay mode's
+ * {@code matching.replay.seed-snapshots}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProfileBackfillService {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final SearchProfileIndex searchProfileIndex;
+    private final MatchingEngine matchingEngine;
+    private final ProcessedMatchStore processedMatchStore;
+    private final ApplicantMatchedKafkaProducer applicantMatchedKafkaProducer;
+    private final SearchProfileReplica searchProfileReplica;
+    private final SubscriptionStatusTracker subscriptionStatusTracker;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "profile-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // companyId -> latest profile still waiting for its backfill
+    private final Map<String, CompanySearchProfileDto> queued = new ConcurrentHashMap<>();
+
+    // applicantId -> latest snapshot not yet written
+    private final Map<String, ApplicantSnapshot> unsaved = new ConcurrentHashMap<>();
+
+    private final String claimToken = UUID.randomUUID().toString();
+
+    @Value("${matching.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${matching.backfill.batch-size:200}")
+    private int batchSize;
+
+    @Value("${matching.backfill.max-notifications-per-second:20}")
+    private int maxNotificationsPerSecond;
+
+    @Value("${matching.backfill.lease-ms:120000}")
+    private long leaseMs;
+
+    // Offline replay runs must not publish backfilled matches
+    @Value("${matching.replay.enabled:false}")
+    private boolean replayMode;
+
+    /**
+     * Store the latest version of an applicant for later backfills. Snapshots are
+     * buffered and written in bulk by {@link #flushSnapshots()}, keeping Mongo off the
+     * matching path; one still buffered when the process dies is only missed by backfills
+     * until the applicant's next event.
+     */
+    public void recordApplicant(ApplicantCreatedEvent applicant) {
+        recordApplicants(List.of(applicant));
+    }
+
+    public void recordApplicants(List<ApplicantCreatedEvent> applicants) {
+        Instant now = Instant.now();
+        applicants.stream()
+                .filter(applicant -> applicant.getApplicantId() != null)
+                .forEach(applicant -> unsaved.put(applicant.getApplicantId(), snapshot(applicant, now)));
+    }
+
+    /**
+     * Write snapshots of replayed events, keeping any newer snapshot already stored.
+     */
+    public void seedApplicants(List<ApplicantSnapshot> snapshots) {
+        writeSnapshots(snapshots, true);
+    }
+
+    public static ApplicantSnapshot snapshot(ApplicantCreatedEvent applicant, Instant updatedAt) {
+        return ApplicantSnapshot.builder()
+                .applicantId(applicant.getApplicantId())
+                .countryKey(TagDictionary.normalize(applicant.getCountry()))
+                .applicant(applicant)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${matching.backfill.snapshot-flush-ms:1000}")
+    public void flushSnapshots() {
+        if (unsaved.isEmpty()) {
+            return;
+        }
+        List<ApplicantSnapshot> batch = new ArrayList<>(unsaved.values());
+        batch.forEach(snapshot -> unsaved.remove(snapshot.getApplicantId(), snapshot));
+        try {
+            writeSnapshots(batch, false);
+        } catch (RuntimeException e) {
+            // Keep them for the next flush, unless a newer event replaced them meanwhile
+            batch.forEach(snapshot -> unsaved.putIfAbsent(snapshot.getApplicantId(), snapshot));
+            log.warn("Writing {} applicant snapshots failed, retrying: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * One unordered bulk upsert. With {@code keepNewer}, a snapshot only replaces an older
+     * one; the upsert of an applicant with a newer snapshot collides on its id and is skipped.
+     */
+    private void writeSnapshots(List<ApplicantSnapshot> snapshots, boolean keepNewer) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ApplicantSnapshot.class);
+        for (ApplicantSnapshot snapshot : snapshots) {
+            Criteria criteria = Criteria.where("_id").is(snapshot.getApplicantId());
+            if (keepNewer) {
+                criteria = criteria.and("updatedAt").lt(snapshot.getUpdatedAt());
+            }
+            bulk.replaceOne(new Query(criteria), snapshot, FindAndReplaceOptions.options().upsert());
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            if (!keepNewer || e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Queue a backfill for the profile. If one is already queued for the same company,
+     * it is replaced by this newer profile instead of running twice.
+     */
+    public void requestBackfill(CompanySearchProfileDto profile) {
+        if (!enabled || profile.getCompanyId() == null) {
+            return;
+        }
+        if (queued.put(profile.getCompanyId(), profile) == null) {
+            executor.submit(() -> run(profile.getCompanyId()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        flushSnapshots();
+    }
+
+    /**
+     * Re-queue backfills whose claim expired before they completed, if the profile is
+     * still the claimed version and the company is still active.
+     */
+    @Scheduled(
+            fixedDelayString = "${matching.backfill.lease-ms:120000}",
+            initialDelayString = "${matching.backfill.lease-ms:120000}"
+    )
+    public void resumeAbandoned() {
+        if (!enabled || replayMode) {
+            return;
+        }
+        Query abandoned = new Query(Criteria.where("completedAt").is(null).and("leaseUntil").lt(Instant.now()));
+        for (ProfileBackfill backfill : mongoTemplate.find(abandoned, ProfileBackfill.class)) {
+            CompanySearchProfileDto profile = searchProfileReplica.profile(backfill.getCompanyId());
+            if (profile != null && profileVersion(profile).equals(backfill.getProfileVersion())
+                    && subscriptionStatusTracker.isActive(backfill.getCompanyId())) {
+                log.info("Resuming abandoned backfill for company {}", backfill.getCompanyId());
+                requestBackfill(profile);
+            }
+        }
+    }
+
+    private void run(String companyId) {
+        CompanySearchProfileDto profile = queued.remove(companyId);
+        if (profile == null) {
+            return;
+        }
+
+        CompiledProfile compiled = searchProfileIndex.compile(profile);
+        if (compiled.country() == null || compiled.tagIds().length == 0) {
+            return;
+        }
+
+        String version = profileVersion(profile);
+        if (!claim(companyId, version)) {
+            log.info("Backfill for company {} skipped: this profile version is done or running elsewhere", companyId);
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        long renewedAt = startTime;
+        long scanned = 0;
+        long notified = 0;
+
+        Query query = new Query(Criteria.where("countryKey").is(compiled.country()));
+        query.cursorBatchSize(batchSize);
+
+        try (Stream<ApplicantSnapshot> stream = mongoTemplate.stream(query, ApplicantSnapshot.class)) {
+            Iterator<ApplicantSnapshot> cursor = stream.iterator();
+            List<ApplicantCreatedEvent> batch = new ArrayList<>(batchSize);
+            while (cursor.hasNext() && !Thread.currentThread().isInterrupted()) {
+                ApplicantCreatedEvent applicant = cursor.next().getApplicant();
+                scanned++;
+                if (applicant != null && matchingEngine.matches(searchProfileIndex.compile(applicant), compiled)) {
+                    batch.add(applicant);
+                }
+                if (batch.size() >= batchSize) {
+                    notified += notifyBatch(companyId, batch);
+                    batch.clear();
+                }
+                if (System.currentTimeMillis() - renewedAt > leaseMs / 3) {
+                    if (!renew(companyId, version)) {
+                        log.warn("Backfill for company {} lost its claim after {} applicants, stopping", companyId, scanned);
+                        return;
+                    }
+                    renewedAt = System.currentTimeMillis();
+                }
+            }
+            notified += notifyBatch(companyId, batch);
+        } catch (InterruptedException e) {
+            // Shutting down: the claim expires and the backfill is resumed elsewhere
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            log.error("Backfill for company {} failed after {} applicants: {}", companyId, scanned, e.getMessage(), e);
+            release(companyId, version);
+            return;
+        }
+        complete(companyId, version);
+
+        log.info("Backfill for company {} done: scanned {} applicants, notified {} in {}ms",
+                companyId, scanned, notified, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Atomically take the backfill of this profile version, unless it already completed
+     * or another instance holds an unexpired claim on it. The filter only matches a
+     * claimable document; for any other existing one the upsert's insert collides on the id.
+     */
+    private boolean claim(String companyId, String version) {
+        Instant now = Instant.now();
+        Criteria claimable = new Criteria().orOperator(
+                Criteria.where("profileVersion").ne(version),
+                Criteria.where("completedAt").is(null).and("leaseUntil").lt(now));
+        try {
+            mongoTemplate.upsert(
+                    new Query(new Criteria().andOperator(Criteria.where("_id").is(companyId), claimable)),
+                    new Update()
+                            .set("profileVersion", version)
+                            .set("claimedBy", claimToken)
+                            .set("leaseUntil", now.plusMillis(leaseMs))
+                            .unset("completedAt"),
+                    ProfileBackfill.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private boolean renew(String companyId, String version) {
+        return mongoTemplate.updateFirst(
+                claimed(companyId, version),
+                new Update().set("leaseUntil", Instant.now().plusMillis(leaseMs)),
+                ProfileBackfill.class).getMatchedCount() > 0;
+    }
+
+    private void complete(String companyId, String version) {
+        mongoTemplate.updateFirst(
+                claimed(companyId, version),
+                new Update().set("completedAt", Instant.now()).unset("claimedBy").unset("leaseUntil"),
+                ProfileBackfill.class);
+    }
+
+    private void release(String companyId, String version) {
+        // Expire the lease now, so the next sweep resumes it
+        mongoTemplate.updateFirst(
+                claimed(companyId, version),
+                new Update().set("leaseUntil", Instant.now()),
+                ProfileBackfill.class);
+    }
+
+    private Query claimed(String companyId, String version) {
+        return new Query(Criteria.where("_id").is(companyId)
+                .and("profileVersion").is(version)
+                .and("claimedBy").is(claimToken));
+    }
+
+    static String profileVersion(CompanySearchProfileDto profile) {
+        return ContentDigest.of(
+                profile.getCountry(),
+                profile.getTechnicalTags(),
+                profile.getEmploymentStatus(),
+                profile.getHighestEducationDegree(),
+                profile.getSalaryMin(),
+                profile.getSalaryMax());
+    }
+
+    private int notifyBatch(String companyId, List<ApplicantCreatedEvent> applicants) throws InterruptedException {
+        List<ApplicantCreatedEvent> toNotify = processedMatchStore.unprocessedApplicants(companyId, applicants);
+
+        // Deliver at most maxNotificationsPerSecond per second
+        int perSecond = Math.max(1, maxNotificationsPerSecond);
+        for (int from = 0; from < toNotify.size(); from += perSecond) {
+            long sliceStart = System.currentTimeMillis();
+            List<ApplicantCreatedEvent> slice = toNotify.subList(from, Math.min(from + perSecond, toNotify.size()));
+
+            applicantMatchedKafkaProducer.publish(slice.stream()
+                    .map(applicant -> ApplicantMatchProcessor.toMatchedEvent(companyId, applicant))
+                    .toList());
+            Map<ApplicantCreatedEvent, List<String>> processed = new LinkedHashMap<>();
+            slice.forEach(applicant -> processed.put(applicant, List.of(companyId)));
+            processedMatchStore.markProcessed(processed);
+
+            long remaining = 1000 - (System.currentTimeMillis() - sliceStart);
+            if (remaining > 0) {
+                Thread.sleep(remaining);
+            }
+        }
+        return toNotify.size();
+    }
+}
@@ -0,0 +1,180 @@
+package com.job.manager.notification.matching.service;
+
+import com.job.manager.notification.matching.dto.CompanySearchProfileDto;
+import com.job.manager.notification.matching.dto.SearchProfileChangedEvent;
+import com.job.manager.notification.matching.index.SearchProfileIndex;
+import com.job.manager.notification.matching.index.SkillCanonicalizer;
+import com.job.manager.notification.matching.index.TagDictionary;
+import com.job.manager.notification.metrics.MatchingMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Local replica of all company search profiles, fed by the compacted
+ * company-search-profiles topic. Changes are applied to the replica immediately
+ * and folded into the {@link SearchProfileIndex} on the next flush, so a replay
+ * of the whole topic on startup costs one index rebuild rather than one per record.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchProfileReplica {
+
+    private final SubscriptionClient subscriptionClient;
+    private final SearchProfileIndex searchProfileIndex;
+    private final MatchingMetrics matchingMetrics;
+    private final SkillCanonicalizer skillCanonicalizer;
+    private final SubscriptionStatusTracker subscriptionStatusTracker;
+    private final MatchingShard matchingShard;
+
+    private final Map<String, CompanySearchProfileDto> profiles = new ConcurrentHashMap<>();
+    // Deleted while this instance ran, so the REST seed must not add them back
+    private final Set<String> deleted = ConcurrentHashMap.newKeySet();
+    // partition -> offset of the last applied record
+    private final Map<Integer, Long> offsets = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicLong version = new AtomicLong();
+    private volatile long indexedSynonymsVersion = -1;
+    private volatile long indexedSubscriptionVersion = -1;
+    private volatile long indexedShardVersion = -1;
+
+    @Value("${matching.replica.http-seed:true}")
+    private boolean httpSeed;
+
+    /**
+     * Profiles saved before change events existed are not on the topic,
+     * so seed them once over REST. Entries already replayed from the topic win, and
+     * profiles deleted on the topic are skipped, even if the REST result predates the delete.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (!httpSeed) {
+            return;
+        }
+        try {
+            List<CompanySearchProfileDto> seeded = matchingMetrics.time(MatchingMetrics.Stage.PROFILE_FETCH,
+                    subscriptionClient::getAllSearchProfiles);
+            // Atomic per company with apply(), so a delete is either seen here or applied after
+            seeded.forEach(p -> profiles.computeIfAbsent(p.getCompanyId(),
+                    companyId -> deleted.contains(companyId) ? null : p));
+            version.incrementAndGet();
+            dirty.set(true);
+            flush();
+            log.info("Search profile replica seeded with {} profiles from subscription service", seeded.size());
+        } catch (Exception e) {
+            log.warn("Failed to seed search profile replica over REST: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Restore profiles and offsets from a snapshot, before the topic consumer starts.
+     */
+    public void restore(List<CompanySearchProfileDto> snapshotProfiles, Map<Integer, Long> snapshotOffsets) {
+        snapshotProfiles.forEach(p -> profiles.put(p.getCompanyId(), p));
+        offsets.putAll(snapshotOffsets);
+        dirty.set(true);
+        flush();
+    }
+
+    /**
+     * @return True if the event changed the stored profile
+     */
+    public boolean apply(SearchProfileChangedEvent event, int partition, long offset) {
+        boolean changed = apply(event);
+        // Recorded after the profile, so a snapshot taking offsets first is never behind them
+        offsets.put(partition, offset);
+        return changed;
+    }
+
+    private boolean apply(SearchProfileChangedEvent event) {
+        if (event.getCompanyId() == null) {
+            log.warn("Ignoring search profile event without companyId: {}", event);
+            return false;
+        }
+
+        boolean deletion = "DELETED".equals(event.getEventType()) || event.getProfile() == null;
+        AtomicReference<CompanySearchProfileDto> previous = new AtomicReference<>();
+        profiles.compute(event.getCompanyId(), (companyId, current) -> {
+            previous.set(current);
+            if (deletion) {
+                deleted.add(companyId);
+                return null;
+            }
+            return event.getProfile();
+        });
+        boolean changed = !Objects.equals(previous.get(), event.getProfile());
+        if (changed) {
+            version.incrementAndGet();
+            dirty.set(true);
+        }
+        return changed;
+    }
+
+    /**
+     * Rebuild the index if profiles changed, if the skill synonym table was reloaded
+     * (so tags are re-canonicalized with the new table) or if a company's subscription
+     * was evicted or reactivated or this instance's {@link MatchingShard} changed since the
+     * last rebuild. Only profiles of premium-active companies in a country this instance
+     * owns are indexed; the replica itself keeps every profile, so a rebalance needs no refetch.
+     */
+    @Scheduled(fixedDelayString = "${matching.replica.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        long synonymsVersion = skillCanonicalizer.version();
+        long subscriptionVersion = subscriptionStatusTracker.version();
+        long shardVersion = matchingShard.version();
+        boolean inputsChanged = synonymsVersion != indexedSynonymsVersion
+                || subscriptionVersion != indexedSubscriptionVersion
+                || shardVersion != indexedShardVersion;
+        if (dirty.compareAndSet(true, false) || inputsChanged) {
+            indexedSynonymsVersion = synonymsVersion;
+            indexedSubscriptionVersion = subscriptionVersion;
+            indexedShardVersion = shardVersion;
+            searchProfileIndex.rebuild(profiles.values().stream()
+                    .filter(profile -> subscriptionStatusTracker.isActive(profile.getCompanyId()))
+                    .filter(profile -> matchingShard.owns(TagDictionary.normalize(profile.getCountry())))
+                    .toList());
+        }
+    }
+
+    public int size() {
+        return profiles.size();
+    }
+
+    /**
+     * Read this before {@link #profiles()}: the profiles are then at least as new as the
+     * offsets, and replaying from the offsets re-applies idempotent upserts at worst.
+     */
+    public Map<Integer, Long> offsets() {
+        return Map.copyOf(offsets);
+    }
+
+    public List<CompanySearchProfileDto> profiles() {
+        return new ArrayList<>(profiles.values());
+    }
+
+    public CompanySearchProfileDto profile(String companyId) {
+        return profiles.get(companyId);
+    }
+
+    /**
+     * @return A counter that increases on every change, to skip writing unchanged snapshots
+     */
+    public long version() {
+        return version.get();
+    }
+}
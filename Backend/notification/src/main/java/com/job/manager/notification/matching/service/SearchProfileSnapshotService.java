@@ -0,0 +1,146 @@
+package com.job.manager.notification.matching.service;
+
+import com.job.manager.notification.matching.dto.CompanySearchProfileDto;
+import com.job.manager.notification.matching.dto.SearchProfileChangedEvent;
+import com.job.manager.notification.matching.index.SearchProfileSnapshotFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodically writes the search profile replica, with the topic offsets it reflects,
+ * to a snapshot file, and restores it on startup so only the tail of the
+ * company-search-profiles topic has to be replayed before matching can start.
+ * Restoring runs in {@code @PostConstruct}, before any Kafka listener container starts.
+ *
+ * Compaction drops tombstones after the topic's {@code delete.retention.ms}, so a snapshot
+ * older than that would bring deleted profiles back. Snapshots older than
+ * {@code matching.snapshot.max-age-ms}, which must stay below it, are ignored, as are
+ * snapshots whose offsets retention has already deleted past.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchProfileSnapshotService {
+
+    private final SearchProfileReplica searchProfileReplica;
+    private final ConsumerFactory<String, SearchProfileChangedEvent> searchProfileConsumerFactory;
+
+    @Value("${matching.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${matching.snapshot.path:/tmp/notification/search-profiles.snapshot}")
+    private String path;
+
+    // Below the topic's delete.retention.ms (24h by default)
+    @Value("${matching.snapshot.max-age-ms:43200000}")
+    private long maxAgeMs;
+
+    @Value("${matching.snapshot.log-start-timeout-ms:10000}")
+    private long logStartTimeoutMs;
+
+    @Value("${kafka.topic.company-search-profiles:company-search-profiles}")
+    private String topic;
+
+    private long writtenVersion = -1;
+
+    @PostConstruct
+    public void restore() {
+        Path file = Path.of(path);
+        if (!enabled || !Files.exists(file)) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            SearchProfileSnapshotFile.Contents contents = SearchProfileSnapshotFile.read(file);
+            if (!topic.equals(contents.topic())) {
+                log.warn("Ignoring search profile snapshot for topic {} (expected {})", contents.topic(), topic);
+                return;
+            }
+            Duration age = Duration.between(contents.writtenAt(), Instant.now());
+            if (age.toMillis() > maxAgeMs) {
+                log.warn("Ignoring search profile snapshot {} written {} ago, compaction may have dropped deletes since",
+                        file, age);
+                return;
+            }
+            List<Integer> truncated = partitionsBehindLogStart(contents.offsets());
+            if (!truncated.isEmpty()) {
+                log.warn("Ignoring search profile snapshot {}, partitions {} were deleted past its offsets",
+                        file, truncated);
+                return;
+            }
+            searchProfileReplica.restore(contents.profiles(), contents.offsets());
+            writtenVersion = searchProfileReplica.version();
+            log.info("Restored {} search profiles from snapshot {} in {}ms (offsets: {})",
+                    contents.profiles().size(), file, System.currentTimeMillis() - startTime, contents.offsets());
+        } catch (Exception e) {
+            log.warn("Failed to restore search profile snapshot {}, replaying the topic instead: {}",
+                    file, e.getMessage());
+        }
+    }
+
+    @Scheduled(
+            fixedDelayString = "${matching.snapshot.interval-ms:300000}",
+            initialDelayString = "${matching.snapshot.interval-ms:300000}"
+    )
+    public synchronized void write() {
+        long version = searchProfileReplica.version();
+        if (!enabled || version == writtenVersion) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            Instant writtenAt = Instant.now();
+            Map<Integer, Long> offsets = searchProfileReplica.offsets();
+            List<CompanySearchProfileDto> profiles = searchProfileReplica.profiles();
+            SearchProfileSnapshotFile.write(Path.of(path),
+                    new SearchProfileSnapshotFile.Contents(topic, writtenAt, offsets, profiles));
+            writtenVersion = version;
+            log.info("Wrote search profile snapshot with {} profiles in {}ms",
+                    profiles.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.warn("Failed to write search profile snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void writeOnShutdown() {
+        write();
+    }
+
+    /**
+     * @return Partitions whose first retained offset is past the record after the snapshot's
+     */
+    private List<Integer> partitionsBehindLogStart(Map<Integer, Long> offsets) {
+        if (offsets.isEmpty()) {
+            return List.of();
+        }
+        List<TopicPartition> partitions = offsets.keySet().stream()
+                .map(partition -> new TopicPartition(topic, partition))
+                .toList();
+        try (Consumer<String, SearchProfileChangedEvent> consumer = searchProfileConsumerFactory.createConsumer()) {
+            Map<TopicPartition, Long> logStart =
+                    consumer.beginningOffsets(partitions, Duration.ofMillis(logStartTimeoutMs));
+            return partitions.stream()
+                    .filter(partition -> offsets.get(partition.partition()) + 1 < logStart.getOrDefault(partition, 0L))
+                    .map(TopicPartition::partition)
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.job.manager.notification.matching.service;
+
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import com.job.manager.notification.matching.index.CompiledApplicant;
+import com.job.manager.notification.matching.index.CompiledProfile;
+import com.job.manager.notification.matching.index.SearchProfileIndex;
+import com.job.manager.notification.matching.model.ScoredMatch;
+import com.job.manager.notification.metrics.MatchingMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the {@link MatchingEngine} in shadow mode: the primary engine's result is
+ * returned, and on a sampled fraction of events the other engine runs as well on the
+ * same index snapshot. Any difference in the matched company sets is logged with the
+ * applicant and the differing profiles, and counted. Engines are the brute-force
+ * {@code reference} and the {@code indexed} fast path.
+ *
+ * Meters: {@code matching.shadow.samples}, {@code matching.shadow.mismatches},
+ * {@code matching.shadow.latency{engine}} and {@code matching.shadow.latency.ratio}
+ * (indexed / reference).
+ */
+@Slf4j
+@Service
+public class ShadowMatchingEngine {
+
+    private final MatchingEngine matchingEngine;
+    private final SearchProfileIndex searchProfileIndex;
+    private final MatchingMetrics matchingMetrics;
+    private final boolean indexedPrimary;
+    private final double sampleRate;
+
+    private final Counter samples;
+    private final Counter mismatches;
+    private final Timer referenceLatency;
+    private final Timer indexedLatency;
+    private final DistributionSummary latencyRatio;
+
+    public ShadowMatchingEngine(
+            MatchingEngine matchingEngine,
+            SearchProfileIndex searchProfileIndex,
+            MatchingMetrics matchingMetrics,
+            MeterRegistry meterRegistry,
+            @Value("${matching.engine.primary:indexed}") String primary,
+            @Value("${matching.shadow.sample-rate:0.01}") double sampleRate
+    ) {
+        this.matchingEngine = matchingEngine;
+        this.searchProfileIndex = searchProfileIndex;
+        this.matchingMetrics = matchingMetrics;
+        this.indexedPrimary = !"reference".equalsIgnoreCase(primary);
+        this.sampleRate = sampleRate;
+
+        this.samples = meterRegistry.counter("matching.shadow.samples");
+        this.mismatches = meterRegistry.counter("matching.shadow.mismatches");
+        this.referenceLatency = meterRegistry.timer("matching.shadow.latency", "engine", "reference");
+        this.indexedLatency = meterRegistry.timer("matching.shadow.latency", "engine", "indexed");
+        this.latencyRatio = DistributionSummary.builder("matching.shadow.latency.ratio")
+                .description("Indexed engine latency divided by reference engine latency")
+                .register(meterRegistry);
+    }
+
+    public List<ScoredMatch> findMatches(ApplicantCreatedEvent applicant) {
+        return findMatches(applicant, searchProfileIndex.snapshot());
+    }
+
+    /**
+     * @return Every matching company with its relevance score, in no particular order
+     */
+    public List<ScoredMatch> findMatches(ApplicantCreatedEvent applicant, SearchProfileIndex.Snapshot snapshot) {
+        boolean sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (!sampled) {
+            return indexedPrimary
+                    ? indexed(applicant, snapshot, true)
+                    : scored(applicant, snapshot, reference(applicant, snapshot, true));
+        }
+
+        long start = System.nanoTime();
+        List<ScoredMatch> indexedMatches = indexed(applicant, snapshot, indexedPrimary);
+        long indexedNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<String> reference = reference(applicant, snapshot, !indexedPrimary);
+        long referenceNanos = System.nanoTime() - start;
+
+        List<String> indexed = indexedMatches.stream().map(ScoredMatch::companyId).toList();
+        samples.increment();
+        indexedLatency.record(indexedNanos, TimeUnit.NANOSECONDS);
+        referenceLatency.record(referenceNanos, TimeUnit.NANOSECONDS);
+        if (referenceNanos > 0) {
+            latencyRatio.record((double) indexedNanos / referenceNanos);
+        }
+
+        Set<String> onlyIndexed = new HashSet<>(indexed);
+        reference.forEach(onlyIndexed::remove);
+        Set<String> onlyReference = new HashSet<>(reference);
+        indexed.forEach(onlyReference::remove);
+        if (!onlyIndexed.isEmpty() || !onlyReference.isEmpty()) {
+            mismatches.increment();
+            log.warn("Shadow matching mismatch for applicant {}: only reference {}, only indexed {}; applicant={}, profiles={}",
+                    applicant.getApplicantId(), onlyReference, onlyIndexed, applicant,
+                    snapshot.profiles().stream()
+                            .filter(p -> onlyReference.contains(p.getCompanyId()) || onlyIndexed.contains(p.getCompanyId()))
+                            .toList());
+        }
+
+        return indexedPrimary ? indexedMatches : scored(applicant, snapshot, reference);
+    }
+
+    /**
+     * @param primary Whether this run serves the result, so its stages are recorded
+     */
+    private List<ScoredMatch> indexed(ApplicantCreatedEvent applicant, SearchProfileIndex.Snapshot snapshot,
+                                      boolean primary) {
+        CompiledApplicant compiled = searchProfileIndex.compile(applicant);
+        if (!primary) {
+            return matchingEngine.findScoredMatches(compiled, snapshot.candidates(compiled));
+        }
+        List<CompiledProfile> candidates = matchingMetrics.time(MatchingMetrics.Stage.CANDIDATE_SELECTION,
+                () -> snapshot.candidates(compiled));
+        List<ScoredMatch> matched = matchingMetrics.time(MatchingMetrics.Stage.PREDICATE_EVALUATION,
+                () -> matchingEngine.findScoredMatches(compiled, candidates));
+        matchingMetrics.matched(candidates.size(), matched.size());
+        return matched;
+    }
+
+    private List<String> reference(ApplicantCreatedEvent applicant, SearchProfileIndex.Snapshot snapshot, boolean primary) {
+        if (!primary) {
+            return matchingEngine.findMatchingCompanyIds(applicant, snapshot.profiles());
+        }
+        // No candidate selection: every profile is evaluated
+        List<String> matched = matchingMetrics.time(MatchingMetrics.Stage.PREDICATE_EVALUATION,
+                () -> matchingEngine.findMatchingCompanyIds(applicant, snapshot.profiles()));
+        matchingMetrics.matched(snapshot.size(), matched.size());
+        return matched;
+    }
+
+    /**
+     * Score the reference engine's matches, compiling only the matched profiles.
+     */
+    private List<ScoredMatch> scored(ApplicantCreatedEvent applicant, SearchProfileIndex.Snapshot snapshot,
+                                     List<String> companyIds) {
+        if (companyIds.isEmpty()) {
+            return List.of();
+        }
+        CompiledApplicant compiled = searchProfileIndex.compile(applicant);
+        Set<String> matched = new HashSet<>(companyIds);
+        return snapshot.profiles().stream()
+                .filter(profile -> matched.contains(profile.getCompanyId()))
+                .map(profile -> new ScoredMatch(profile.getCompanyId(),
+                        matchingEngine.score(compiled, searchProfileIndex.compile(profile))))
+                .toList();
+    }
+}
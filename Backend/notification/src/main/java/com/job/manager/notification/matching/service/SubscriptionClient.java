@@ -23,4 +23,11 @@ public class SubscriptionClient {
 
         return profiles != null ? Arrays.asList(profiles) : List.of();
     }
+
+    public List<String> getPremiumActiveCompanyIds() {
+        String url = subscriptionBaseUrl + "/subscriptions/internal/premium-active-companies";
+        String[] companyIds = restTemplate.getForObject(url, String[].class);
+
+        return companyIds != null ? Arrays.asList(companyIds) : List.of();
+    }
 }
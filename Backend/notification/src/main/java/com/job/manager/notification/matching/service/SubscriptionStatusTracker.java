@@ -0,0 +1,153 @@
+package com.job.manager.notification.matching.service;
+
+import com.job.manager.notification.dto.SubscriptionEventDTO;
+import com.job.manager.notification.model.CompanySubscriptionStatus;
+import com.job.manager.notification.repository.CompanySubscriptionStatusRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks which companies are premium-active, so only their search profiles are in the
+ * matching index. Expired and cancelled subscriptions deactivate a company, activated
+ * ones (and premium subscriptions created active) reactivate it. The state is kept in
+ * Mongo because the subscription topics are not replayed on restart. Companies no event
+ * was seen for are seeded once from the subscription service; until then, and for
+ * companies it does not list, they count as inactive.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SubscriptionStatusTracker {
+
+    private final CompanySubscriptionStatusRepository companySubscriptionStatusRepository;
+    private final SubscriptionClient subscriptionClient;
+    private final MongoTemplate mongoTemplate;
+
+    private final Set<String> activeCompanies = ConcurrentHashMap.newKeySet();
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean seeded;
+
+    @PostConstruct
+    public void load() {
+        try {
+            reload();
+            log.info("Loaded {} companies with an active premium subscription", activeCompanies.size());
+        } catch (Exception e) {
+            log.warn("Failed to load company subscription status, treating all companies as inactive: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Store the companies the subscription service reports as premium-active, for those
+     * without a stored status. Statuses from events are kept, since they are at least as
+     * recent. Runs at startup and is retried until it succeeds once.
+     */
+    @Scheduled(fixedDelayString = "${matching.subscriptions.seed-retry-ms:60000}")
+    public void seed() {
+        if (seeded) {
+            return;
+        }
+        try {
+            List<String> companyIds = subscriptionClient.getPremiumActiveCompanyIds();
+            if (!companyIds.isEmpty()) {
+                BulkOperations bulk = mongoTemplate.bulkOps(
+                        BulkOperations.BulkMode.UNORDERED, CompanySubscriptionStatus.class);
+                companyIds.forEach(companyId -> bulk.upsert(
+                        new Query(Criteria.where("_id").is(companyId)),
+                        new Update().setOnInsert("active", true).setOnInsert("lastEventType", "SEEDED")));
+                bulk.execute();
+            }
+            reload();
+            seeded = true;
+            log.info("Seeded subscription status of {} premium-active companies, {} active in total",
+                    companyIds.size(), activeCompanies.size());
+        } catch (Exception e) {
+            log.warn("Failed to seed company subscription status from subscription service: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void reload() {
+        Set<String> loaded = new HashSet<>();
+        companySubscriptionStatusRepository.findByActiveTrue()
+                .forEach(status -> loaded.add(status.getCompanyId()));
+        activeCompanies.retainAll(loaded);
+        activeCompanies.addAll(loaded);
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return True if the event changed whether the company's profile is matchable
+     */
+    public synchronized boolean apply(SubscriptionEventDTO event) {
+        Boolean active = activeAfter(event);
+        if (active == null || event.getCompanyId() == null) {
+            return false;
+        }
+
+        CompanySubscriptionStatus current = companySubscriptionStatusRepository
+                .findById(event.getCompanyId())
+                .orElse(null);
+        if (current != null && current.getEventTimestamp() != null && event.getTimestamp() != null
+                && event.getTimestamp().isBefore(current.getEventTimestamp())) {
+            log.info("Ignoring out-of-order {} event for company {} ({} is older than {})",
+                    event.getEventType(), event.getCompanyId(), event.getTimestamp(), current.getEventTimestamp());
+            return false;
+        }
+
+        companySubscriptionStatusRepository.save(CompanySubscriptionStatus.builder()
+                .companyId(event.getCompanyId())
+                .active(active)
+                .lastEventType(event.getEventType())
+                .eventTimestamp(event.getTimestamp())
+                .build());
+
+        boolean changed = active ? activeCompanies.add(event.getCompanyId()) : activeCompanies.remove(event.getCompanyId());
+        if (changed) {
+            version.incrementAndGet();
+            log.info("Company {} search profile {} for matching after subscription {}",
+                    event.getCompanyId(), active ? "reactivated" : "evicted", event.getEventType());
+        }
+        return changed;
+    }
+
+    public boolean isActive(String companyId) {
+        return activeCompanies.contains(companyId);
+    }
+
+    /**
+     * @return A counter that increases whenever a company is evicted or reactivated
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * @return The premium state after the event, or null if the event does not change it
+     */
+    private static Boolean activeAfter(SubscriptionEventDTO event) {
+        if (event.getEventType() == null) {
+            return null;
+        }
+        return switch (event.getEventType()) {
+            case "EXPIRED", "CANCELLED" -> false;
+            case "ACTIVATED" -> true;
+            case "CREATED" -> "PREMIUM".equals(event.getPlanType()) && "ACTIVE".equals(event.getStatus()) ? true : null;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package com.job.manager.notification.metrics;
+
+import com.job.manager.notification.matching.index.SearchProfileIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for each stage of the applicant matching pipeline, exposed on
+ * {@code /actuator/prometheus}.
+ *
+ * <ul>
+ *   <li>{@code matching.stage{stage}}: timer per {@link Stage}</li>
+ *   <li>{@code matching.stage.failures{stage}}: stages that threw</li>
+ *   <li>{@code matching.events}: applicant events matched, {@code matching.event} their end-to-end timer</li>
+ *   <li>{@code matching.candidates.per.event} / {@code matching.matches.per.event}: histograms</li>
+ *   <li>{@code matching.profiles.indexed}: gauge of profiles in the current index snapshot</li>
+ * </ul>
+ */
+@Component
+public class MatchingMetrics {
+
+    public enum Stage {
+        PROFILE_FETCH("profile_fetch"),
+        CANDIDATE_SELECTION("candidate_selection"),
+        PREDICATE_EVALUATION("predicate_evaluation"),
+        NOTIFICATION_PERSIST("notification_persist"),
+        WEBSOCKET_PUSH("websocket_push"),
+        EMAIL_SEND("email_send");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+    private final Map<Stage, Counter> failures = new EnumMap<>(Stage.class);
+    private final Counter events;
+    private final Timer eventTimer;
+    private final DistributionSummary candidatesPerEvent;
+    private final DistributionSummary matchesPerEvent;
+
+    public MatchingMetrics(MeterRegistry meterRegistry, SearchProfileIndex searchProfileIndex) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            timers.put(stage, Timer.builder("matching.stage")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            failures.put(stage, Counter.builder("matching.stage.failures")
+                    .tag("stage", stage.tag)
+                    .register(meterRegistry));
+        }
+        this.events = meterRegistry.counter("matching.events");
+        this.eventTimer = Timer.builder("matching.event")
+                .description("Matching and notifying one applicant event")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.candidatesPerEvent = DistributionSummary.builder("matching.candidates.per.event")
+                .description("Profiles evaluated per applicant event after candidate selection")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchesPerEvent = DistributionSummary.builder("matching.matches.per.event")
+                .description("Companies matched per applicant event")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("matching.profiles.indexed", searchProfileIndex, SearchProfileIndex::size)
+                .description("Company search profiles in the current index snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Time one stage; a stage that throws is timed as well and counted as a failure.
+     */
+    public <T> T time(Stage stage, Supplier<T> work) {
+        try {
+            return timers.get(stage).record(work);
+        } catch (RuntimeException e) {
+            failures.get(stage).increment();
+            throw e;
+        }
+    }
+
+    public void run(Stage stage, Runnable work) {
+        time(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public void failed(Stage stage) {
+        failures.get(stage).increment();
+    }
+
+    public Timer.Sample startEvent() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void eventProcessed(Timer.Sample sample) {
+        events.increment();
+        sample.stop(eventTimer);
+    }
+
+    /**
+     * Events matched together in one batch: each is recorded with the batch's time.
+     */
+    public void batchProcessed(Timer.Sample sample, int count) {
+        long nanos = sample.stop(eventTimer);
+        for (int i = 1; i < count; i++) {
+            eventTimer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+        events.increment(count);
+    }
+
+    public void matched(int candidates, int matches) {
+        candidatesPerEvent.record(candidates);
+        matchesPerEvent.record(matches);
+    }
+}
@@ -0,0 +1,30 @@
+package com.job.manager.notification.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Marks that a delivered match was held for its company's digest window, so a redelivery
+ * after the window was flushed is not held and sent again.
+ * The id is the match's notification dedupe key, {@code applicantId:companyId:eventVersion}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "accumulated_matches")
+public class AccumulatedMatch {
+
+    @Id
+    private String id;
+
+    @Indexed(expireAfter = "30d")
+    private Instant accumulatedAt;
+}
@@ -0,0 +1,35 @@
+package com.job.manager.notification.model;
+
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Latest known version of an applicant, kept so new or changed search profiles
+ * can be matched against existing applicants.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "applicant_snapshots")
+public class ApplicantSnapshot {
+
+    @Id
+    private String applicantId;
+
+    // Normalized country, the only filter the backfill query applies
+    @Indexed
+    private String countryKey;
+
+    private ApplicantCreatedEvent applicant;
+
+    private Instant updatedAt;
+}
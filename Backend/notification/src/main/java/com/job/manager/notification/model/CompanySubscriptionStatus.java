@@ -0,0 +1,30 @@
+package com.job.manager.notification.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last known premium state of a company, from the subscription events or, for
+ * companies no event was seen for yet, from the subscription service.
+ * Companies without a document are treated as inactive.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "company_subscription_status")
+public class CompanySubscriptionStatus {
+
+    @Id
+    private String companyId;
+
+    private boolean active;
+    private String lastEventType;
+    private LocalDateTime eventTimestamp;
+}
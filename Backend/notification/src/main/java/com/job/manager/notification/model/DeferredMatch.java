@@ -0,0 +1,44 @@
+package com.job.manager.notification.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A match waiting for the company's next digest: either ranked below the top K of its
+ * applicant, or held for the company's digest window when digest mode is on.
+ * A digest run claims a company's matches with a lease before sending them; saving the
+ * match again replaces the document and drops the claim, so the newer version is kept.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "deferred_matches")
+@CompoundIndex(name = "company_score", def = "{'companyId': 1, 'score': -1}")
+public class DeferredMatch {
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String companyId;
+    private String applicantId;
+    private String applicantName;
+    private double score;
+
+    private Instant deferredAt;
+    // Held by the digest window rather than deferred by ranking
+    private boolean windowed;
+
+    // Digest run currently sending this match, and until when its claim holds
+    private String claimedBy;
+    private Instant leaseUntil;
+}
@@ -0,0 +1,16 @@
+package com.job.manager.notification.model;
+
+/**
+ * Email delivery state of a notification and of its outbox entry.
+ */
+public enum EmailDeliveryStatus {
+    // Waiting in the outbox, possibly for a retry
+    PENDING,
+    // Claimed by a delivery worker
+    SENDING,
+    SENT,
+    // Gave up after the last attempt
+    FAILED,
+    // SMTP not configured, never queued
+    SKIPPED
+}
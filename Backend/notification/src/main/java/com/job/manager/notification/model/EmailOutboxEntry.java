@@ -0,0 +1,42 @@
+package com.job.manager.notification.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One email waiting to be sent for a notification. Entries are claimed by a delivery
+ * worker until {@code leaseUntil}, so an entry held by a crashed instance is picked up
+ * again once its lease expires. Sent entries are removed; failed ones are kept.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "email_outbox")
+@CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class EmailOutboxEntry {
+
+    @Id
+    private String id;
+
+    private String notificationId;
+    private String companyId;
+    private String subject;
+    private String message;
+
+    private EmailDeliveryStatus status;
+    private int attempts;
+    private Instant nextAttemptAt;
+    private String claimedBy;
+    private Instant leaseUntil;
+    private String lastError;
+
+    private Instant createdAt;
+}
@@ -3,6 +3,7 @@ package com.job.manager.notification.model;
 import lombok.Builder;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -19,10 +20,20 @@ public class Notification {
     private String applicantId;
     private String applicantName;
 
+    // applicantId:companyId:eventVersion of a match notification, digest:companyId:<matches digest> of a digest
+    @Indexed(unique = true, sparse = true)
+    private String dedupeKey;
+
     private String subject;
     private String message;
 
     private boolean read;
 
     private Instant createdAt;
+
+    // Email delivery state, maintained by the email outbox
+    private EmailDeliveryStatus emailStatus;
+    private int emailAttempts;
+    private Instant emailSentAt;
+    private String emailError;
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.job.manager.notification.model;
+
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * The latest applicant event held back by the debounce, one per applicant. It is due
+ * at {@code dueAt} (end of the quiet window) or {@code deadline} (max delay), whichever
+ * comes first. {@code revision} increases with every newer event, so an event is only
+ * removed if nothing replaced it while it was being matched. Entries that keep failing
+ * are marked {@code failed} and kept until a newer event for the applicant arrives.
+ * {@code partition} is the applicant-profile-updates partition of the latest event, so
+ * with sharding only the instance owning that partition matches it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "pending_applicant_events")
+public class PendingApplicantEvent {
+
+    @Id
+    private String applicantId;
+
+    private ApplicantCreatedEvent event;
+    private long revision;
+    @Indexed
+    private Integer partition;
+
+    private Instant firstSeenAt;
+    @Indexed
+    private Instant dueAt;
+    @Indexed
+    private Instant deadline;
+
+    private int attempts;
+    private boolean failed;
+    private String lastError;
+    private String claimedBy;
+    private Instant leaseUntil;
+}
@@ -0,0 +1,35 @@
+package com.job.manager.notification.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Marks that a company was notified about one version of an applicant.
+ * The id is {@code applicantId:eventVersion:companyId}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "processed_matches")
+@CompoundIndex(name = "applicant_version", def = "{'applicantId': 1, 'eventVersion': 1}")
+public class ProcessedMatch {
+
+    @Id
+    private String id;
+
+    private String applicantId;
+    private String eventVersion;
+    private String companyId;
+
+    @Indexed(expireAfter = "30d")
+    private Instant processedAt;
+}
@@ -0,0 +1,31 @@
+package com.job.manager.notification.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Claim on the backfill of one version of a company's search profile, so only one
+ * instance runs it. The claim is held until {@code leaseUntil} and renewed while the
+ * backfill makes progress; {@code completedAt} is set once it finished.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "profile_backfills")
+public class ProfileBackfill {
+
+    @Id
+    private String companyId;
+
+    private String profileVersion;
+    private String claimedBy;
+    private Instant leaseUntil;
+    private Instant completedAt;
+}
@@ -0,0 +1,34 @@
+package com.job.manager.notification.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+import java.time.Instant;
+
+/**
+ * One match produced by an offline replay run. Written to the collection or file
+ * given by {@code matching.replay.output}, never to {@code notifications}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayMatch {
+
+    @Id
+    private String id;
+
+    private String runId;
+    private String applicantId;
+    private String companyId;
+    private double score;
+    // Ranked below the applicant's top K, so the live path would only send it in a digest
+    private boolean deferred;
+
+    private int partition;
+    private long offset;
+    private Instant eventTimestamp;
+}
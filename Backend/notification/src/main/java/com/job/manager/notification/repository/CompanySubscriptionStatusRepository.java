@@ -0,0 +1,11 @@
+package com.job.manager.notification.repository;
+
+import com.job.manager.notification.model.CompanySubscriptionStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface CompanySubscriptionStatusRepository extends MongoRepository<CompanySubscriptionStatus, String> {
+
+    List<CompanySubscriptionStatus> findByActiveTrue();
+}
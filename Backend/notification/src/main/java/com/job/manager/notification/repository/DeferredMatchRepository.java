@@ -0,0 +1,7 @@
+package com.job.manager.notification.repository;
+
+import com.job.manager.notification.model.DeferredMatch;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface DeferredMatchRepository extends MongoRepository<DeferredMatch, String> {
+}
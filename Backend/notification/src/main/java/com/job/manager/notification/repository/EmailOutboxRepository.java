@@ -0,0 +1,11 @@
+package com.job.manager.notification.repository;
+
+import com.job.manager.notification.model.EmailOutboxEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface EmailOutboxRepository extends MongoRepository<EmailOutboxEntry, String> {
+
+    List<EmailOutboxEntry> findByClaimedBy(String claimedBy);
+}
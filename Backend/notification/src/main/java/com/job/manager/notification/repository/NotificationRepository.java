@@ -3,9 +3,12 @@ package com.job.manager.notification.repository;
 import com.job.manager.notification.model.Notification;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface NotificationRepository extends MongoRepository<Notification, String> {
 
     List<Notification> findByCompanyIdOrderByCreatedAtDesc(String companyId);
+
+    List<Notification> findByApplicantIdIn(Collection<String> applicantIds);
 }
\ No newline at end of file
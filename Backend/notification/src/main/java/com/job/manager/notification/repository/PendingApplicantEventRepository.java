@@ -0,0 +1,11 @@
+package com.job.manager.notification.repository;
+
+import com.job.manager.notification.model.PendingApplicantEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface PendingApplicantEventRepository extends MongoRepository<PendingApplicantEvent, String> {
+
+    List<PendingApplicantEvent> findByClaimedBy(String claimedBy);
+}
@@ -0,0 +1,7 @@
+package com.job.manager.notification.repository;
+
+import com.job.manager.notification.model.ProcessedMatch;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ProcessedMatchRepository extends MongoRepository<ProcessedMatch, String> {
+}
@@ -0,0 +1,78 @@
+package com.job.manager.notification.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-company token bucket in front of notification delivery: each company may receive
+ * {@code notification.throttle.per-minute} notifications a minute, with bursts of up to
+ * {@code notification.throttle.burst}. Over-limit notifications are handed to the digest
+ * instead of being dropped.
+ *
+ * Each bucket is a single {@link AtomicLong} holding the time its next token becomes
+ * available (the generic cell rate algorithm), updated with compare-and-set, so companies
+ * never contend with each other and one company's callers never block.
+ */
+@Component
+public class CompanyRateLimiter {
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final Counter throttled;
+
+    public CompanyRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${notification.throttle.enabled:true}") boolean enabled,
+            @Value("${notification.throttle.per-minute:60}") int perMinute,
+            @Value("${notification.throttle.burst:30}") int burst
+    ) {
+        this.enabled = enabled;
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+        this.burstNanos = emissionIntervalNanos * Math.max(1, burst);
+        this.throttled = Counter.builder("notification.throttled")
+                .description("Notifications diverted to the digest by the per-company rate limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take one token from the company's bucket.
+     * @return false if the company is over its limit
+     */
+    public boolean tryAcquire(String companyId) {
+        if (!enabled) {
+            return true;
+        }
+        AtomicLong nextFree = buckets.computeIfAbsent(companyId, id -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long now = System.nanoTime();
+            long current = nextFree.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            if (next - now > burstNanos) {
+                throttled.increment();
+                return false;
+            }
+            if (nextFree.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Drop buckets that have refilled completely; they behave exactly like new ones.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(nextFree -> nextFree.get() - now < 0);
+    }
+}
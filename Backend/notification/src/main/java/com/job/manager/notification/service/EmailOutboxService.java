@@ -0,0 +1,310 @@
+package com.job.manager.notification.service;
+
+import com.job.manager.notification.client.CompanyEmailDirectory;
+import com.job.manager.notification.metrics.MatchingMetrics;
+import com.job.manager.notification.model.EmailDeliveryStatus;
+import com.job.manager.notification.model.EmailOutboxEntry;
+import com.job.manager.notification.model.Notification;
+import com.job.manager.notification.repository.EmailOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Email outbox: notifications are queued in {@code email_outbox} when they are saved and
+ * sent later by a pool of {@code notification.email.workers} sender threads, so the Kafka
+ * listener never waits on SMTP. Each sender passes up to
+ * {@code notification.email.messages-per-connection} messages to one
+ * {@link JavaMailSender#send(SimpleMailMessage...)} call, which delivers them over a single
+ * SMTP connection. Failed messages are retried with exponential backoff up to
+ * {@code notification.email.max-attempts}; the outcome is recorded on the notification.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final MongoTemplate mongoTemplate;
+    private final JavaMailSender mailSender;
+    private final CompanyEmailDirectory companyEmailDirectory;
+    private final MatchingMetrics matchingMetrics;
+
+    private ExecutorService senders;
+
+    @Value("${SMTP_EMAIL:}")
+    private String from;
+
+    @Value("${notification.email.workers:4}")
+    private int workers;
+
+    @Value("${notification.email.messages-per-connection:50}")
+    private int messagesPerConnection;
+
+    @Value("${notification.email.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notification.email.initial-backoff-ms:30000}")
+    private long initialBackoffMs;
+
+    @Value("${notification.email.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${notification.email.lease-ms:300000}")
+    private long leaseMs;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threads = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(Math.max(1, workers), r -> {
+            Thread thread = new Thread(r, "email-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        senders.shutdown();
+    }
+
+    /**
+     * @return Whether SMTP is configured; without it notifications are not queued at all
+     */
+    public boolean isEnabled() {
+        return from != null && !from.isBlank();
+    }
+
+    /**
+     * Queue an email for each saved notification with {@link EmailDeliveryStatus#PENDING}.
+     */
+    public void enqueue(List<Notification> notifications) {
+        Instant now = Instant.now();
+        List<EmailOutboxEntry> entries = notifications.stream()
+                .filter(notification -> notification.getEmailStatus() == EmailDeliveryStatus.PENDING)
+                .map(notification -> EmailOutboxEntry.builder()
+                        .notificationId(notification.getId())
+                        .companyId(notification.getCompanyId())
+                        .subject(notification.getSubject())
+                        .message(notification.getMessage())
+                        .status(EmailDeliveryStatus.PENDING)
+                        .nextAttemptAt(now)
+                        .createdAt(now)
+                        .build())
+                .toList();
+        if (!entries.isEmpty()) {
+            emailOutboxRepository.saveAll(entries);
+        }
+    }
+
+    /**
+     * Claim due entries and send them, one SMTP connection per sender. Keeps draining
+     * while full batches are claimed.
+     */
+    @Scheduled(fixedDelayString = "${notification.email.poll-interval-ms:1000}")
+    public void drain() {
+        if (!isEnabled()) {
+            return;
+        }
+        int connectionCount = Math.max(1, workers);
+        int perConnection = Math.max(1, messagesPerConnection);
+        int limit = connectionCount * perConnection;
+
+        List<EmailOutboxEntry> claimed;
+        do {
+            claimed = claim(limit);
+            if (claimed.isEmpty()) {
+                return;
+            }
+
+            List<Callable<Void>> connections = new ArrayList<>();
+            int chunk = Math.min(perConnection, (claimed.size() + connectionCount - 1) / connectionCount);
+            for (int start = 0; start < claimed.size(); start += chunk) {
+                List<EmailOutboxEntry> entries = claimed.subList(start, Math.min(start + chunk, claimed.size()));
+                connections.add(() -> {
+                    send(entries);
+                    return null;
+                });
+            }
+            try {
+                senders.invokeAll(connections);
+            } catch (InterruptedException e) {
+                // Unsent entries are claimed again once their lease expires
+                Thread.currentThread().interrupt();
+                return;
+            }
+            log.info("Email outbox: processed {} messages over {} connections", claimed.size(), connections.size());
+        } while (claimed.size() == limit);
+    }
+
+    /**
+     * Mark up to {@code limit} due entries, including ones whose lease expired, as claimed
+     * by this run. The update re-checks the condition, so concurrent instances never claim
+     * the same entry.
+     */
+    private List<EmailOutboxEntry> claim(int limit) {
+        Instant now = Instant.now();
+        Criteria due = new Criteria().orOperator(
+                Criteria.where("status").is(EmailDeliveryStatus.PENDING).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(EmailDeliveryStatus.SENDING).and("leaseUntil").lt(now));
+
+        Query candidates = new Query(due).with(Sort.by("nextAttemptAt")).limit(limit);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, EmailOutboxEntry.class).stream()
+                .map(EmailOutboxEntry::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String claimToken = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), due)),
+                new Update()
+                        .set("status", EmailDeliveryStatus.SENDING)
+                        .set("claimedBy", claimToken)
+                        .set("leaseUntil", now.plusMillis(leaseMs)),
+                EmailOutboxEntry.class);
+        return emailOutboxRepository.findByClaimedBy(claimToken);
+    }
+
+    /**
+     * Send all entries over one SMTP connection and record the outcome of each.
+     */
+    private void send(List<EmailOutboxEntry> entries) {
+        Map<String, String> failures = new HashMap<>();
+        List<EmailOutboxEntry> sendable = new ArrayList<>();
+        List<SimpleMailMessage> messages = new ArrayList<>();
+        for (EmailOutboxEntry entry : entries) {
+            try {
+                SimpleMailMessage mail = new SimpleMailMessage();
+                mail.setFrom(from);
+                mail.setTo(companyEmailDirectory.getCompanyEmail(entry.getCompanyId()));
+                mail.setSubject(entry.getSubject());
+                mail.setText(entry.getMessage());
+                sendable.add(entry);
+                messages.add(mail);
+            } catch (Exception e) {
+                failures.put(entry.getId(), "Cannot resolve company email: " + e.getMessage());
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                matchingMetrics.run(MatchingMetrics.Stage.EMAIL_SEND,
+                        () -> mailSender.send(messages.toArray(new SimpleMailMessage[0])));
+            } catch (MailSendException e) {
+                // Failed messages are keyed by the message passed in; none means the connection itself failed
+                Map<Object, Exception> failed = e.getFailedMessages();
+                for (int i = 0; i < messages.size(); i++) {
+                    Exception cause = failed.isEmpty() ? e : findFailure(failed, messages.get(i));
+                    if (cause != null) {
+                        failures.put(sendable.get(i).getId(), cause.getMessage());
+                    }
+                }
+            } catch (MailException e) {
+                sendable.forEach(entry -> failures.put(entry.getId(), e.getMessage()));
+            }
+        }
+
+        List<EmailOutboxEntry> sent = new ArrayList<>();
+        for (EmailOutboxEntry entry : entries) {
+            String error = failures.get(entry.getId());
+            if (error == null) {
+                sent.add(entry);
+            } else {
+                retryLater(entry, error);
+            }
+        }
+        markSent(sent);
+    }
+
+    private static Exception findFailure(Map<Object, Exception> failed, SimpleMailMessage message) {
+        // SimpleMailMessage equality is by value, so compare by identity
+        for (Map.Entry<Object, Exception> failure : failed.entrySet()) {
+            if (failure.getKey() == message) {
+                return failure.getValue();
+            }
+        }
+        return null;
+    }
+
+    private void markSent(List<EmailOutboxEntry> sent) {
+        if (sent.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(sent.stream().map(EmailOutboxEntry::getNotificationId).toList())),
+                new Update()
+                        .set("emailStatus", EmailDeliveryStatus.SENT)
+                        .set("emailSentAt", Instant.now())
+                        .inc("emailAttempts", 1)
+                        .unset("emailError"),
+                Notification.class);
+        emailOutboxRepository.deleteAll(sent);
+    }
+
+    private void retryLater(EmailOutboxEntry entry, String error) {
+        int attempts = entry.getAttempts() + 1;
+        boolean exhausted = attempts >= maxAttempts;
+        EmailDeliveryStatus status = exhausted ? EmailDeliveryStatus.FAILED : EmailDeliveryStatus.PENDING;
+        Instant nextAttemptAt = Instant.now().plusMillis(backoff(attempts));
+
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(entry.getId())),
+                new Update()
+                        .set("status", status)
+                        .set("attempts", attempts)
+                        .set("nextAttemptAt", nextAttemptAt)
+                        .set("lastError", error)
+                        .unset("claimedBy")
+                        .unset("leaseUntil"),
+                EmailOutboxEntry.class);
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(entry.getNotificationId())),
+                new Update()
+                        .set("emailStatus", status)
+                        .set("emailAttempts", attempts)
+                        .set("emailError", error),
+                Notification.class);
+
+        if (exhausted) {
+            log.warn("Email for notification {} failed after {} attempts: {}", entry.getNotificationId(), attempts, error);
+        } else {
+            log.info("Email for notification {} failed (attempt {}), retrying at {}: {}",
+                    entry.getNotificationId(), attempts, nextAttemptAt, error);
+        }
+    }
+
+    /**
+     * Exponential backoff: initial, 2x initial, 4x initial, ... capped at the maximum.
+     */
+    private long backoff(int attempts) {
+        long delay = initialBackoffMs << Math.min(attempts - 1, 20);
+        return Math.min(delay, maxBackoffMs);
+    }
+}
@@ -1,80 +1,202 @@
 package com.job.manager.notification.service;
 
-import com.job.manager.notification.client.CompanyEmailClient;
 import com.job.manager.notification.dto.ApplicantMatchedEvent;
+import com.job.manager.notification.metrics.MatchingMetrics;
+import com.job.manager.notification.model.EmailDeliveryStatus;
 import com.job.manager.notification.model.Notification;
 import com.job.manager.notification.repository.NotificationRepository;
 import com.job.manager.notification.websocket.NotificationWebSocketHandler;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
+    private static final int DIGEST_LISTED_APPLICANTS = 10;
+    private static final int DUPLICATE_KEY = 11000;
+
     private final NotificationRepository notificationRepository;
-    private final JavaMailSender mailSender;
-    private final CompanyEmailClient companyEmailClient;
     private final NotificationWebSocketHandler webSocketHandler;
+    private final MatchingMetrics matchingMetrics;
+    private final EmailOutboxService emailOutboxService;
+    private final MongoTemplate mongoTemplate;
 
-    @Value("${SMTP_EMAIL:}")
-    private String from;
+    public void handleApplicantMatched(ApplicantMatchedEvent event) {
+        handleApplicantMatches(List.of(event));
+    }
+
+    /**
+     * Persist all notifications of a batch with a single bulk write, queue their emails
+     * in the outbox, then push each one over WebSocket. A match redelivered by Kafka has
+     * the same applicant, company and event version as the stored notification, so it is
+     * neither stored nor delivered again.
+     * @param events Matches to notify, possibly for many companies and applicants
+     */
+    public void handleApplicantMatches(List<ApplicantMatchedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // 1. Save notifications to Mongo
+        List<Notification> notifications = events.stream()
+                .map(event -> Notification.builder()
+                        .companyId(event.getCompanyId())
+                        .applicantId(event.getApplicantId())
+                        .applicantName(event.getApplicantName())
+                        .dedupeKey(dedupeKey(event))
+                        .subject("New matching applicant: " + event.getApplicantName())
+                        .message("An applicant matching your criteria has been found: " + event.getApplicantName())
+                        .read(false)
+                        .createdAt(Instant.now())
+                        .emailStatus(initialEmailStatus())
+                        .build())
+                .toList();
+
+        List<Notification> savedNotifications = matchingMetrics.time(MatchingMetrics.Stage.NOTIFICATION_PERSIST,
+                () -> insertNew(notifications));
+        System.out.println("NotificationService: Saved " + savedNotifications.size() + " notification(s) to MongoDB");
+        if (savedNotifications.size() < notifications.size()) {
+            System.out.println("NotificationService: Skipped " + (notifications.size() - savedNotifications.size())
+                    + " duplicate notification(s)");
+        }
 
-    private String resolveCompanyEmail(String companyId) {
-        return companyEmailClient.getCompanyEmail(companyId);
+        enqueueEmails(savedNotifications);
+        for (Notification savedNotification : savedNotifications) {
+            deliver(savedNotification);
+        }
     }
 
-    public void handleApplicantMatched(ApplicantMatchedEvent event) {
+    /**
+     * One notification, WebSocket message and email summarizing the matches held for a company.
+     * A digest whose dedupe key is already stored was sent by an earlier, failed run and
+     * is not sent again.
+     * @param events The company's deferred or windowed matches, best first
+     * @param dedupeKey Identifies this set of matches
+     */
+    public void handleMatchDigest(String companyId, List<ApplicantMatchedEvent> events, String dedupeKey) {
+        if (events.isEmpty()) {
+            return;
+        }
 
-        // 1. Save notification to Mongo
-        Notification notification = Notification.builder()
-                .companyId(event.getCompanyId())
-                .applicantId(event.getApplicantId())
-                .applicantName(event.getApplicantName())
-                .subject("New matching applicant: " + event.getApplicantName())
-                .message("An applicant matching your criteria has been found: " + event.getApplicantName())
+        String names = events.stream()
+                .limit(DIGEST_LISTED_APPLICANTS)
+                .map(ApplicantMatchedEvent::getApplicantName)
+                .collect(Collectors.joining(", "));
+        int unlisted = events.size() - DIGEST_LISTED_APPLICANTS;
+        Notification digest = Notification.builder()
+                .companyId(companyId)
+                .dedupeKey(dedupeKey)
+                .subject(events.size() + " new matching applicants")
+                .message("Applicants matching your criteria have been found: " + names
+                        + (unlisted > 0 ? " and " + unlisted + " more" : ""))
                 .read(false)
                 .createdAt(Instant.now())
+                .emailStatus(initialEmailStatus())
                 .build();
 
-        Notification savedNotification = notificationRepository.save(notification);
-        System.out.println("NotificationService: Saved notification to MongoDB: " + savedNotification.getId());
+        List<Notification> savedDigest = matchingMetrics.time(MatchingMetrics.Stage.NOTIFICATION_PERSIST,
+                () -> insertNew(List.of(digest)));
+        if (savedDigest.isEmpty()) {
+            System.out.println("NotificationService: Skipped duplicate digest for company: " + companyId);
+            return;
+        }
+        System.out.println("NotificationService: Saved digest of " + events.size() + " matches for company: " + companyId);
+        enqueueEmails(savedDigest);
+        deliver(savedDigest.get(0));
+    }
 
-        // 2. Send real-time WebSocket notification to company
+    private void deliver(Notification notification) {
+        String companyId = notification.getCompanyId();
+
+        // 2. Send real-time WebSocket notification to company, if any of its sessions is listening
+        if (!webSocketHandler.hasSubscribers(companyId)) {
+            return;
+        }
         try {
-            webSocketHandler.sendNotificationToCompany(event.getCompanyId(), savedNotification);
-            System.out.println("NotificationService: Sent WebSocket notification to company: " + event.getCompanyId());
+            matchingMetrics.run(MatchingMetrics.Stage.WEBSOCKET_PUSH,
+                    () -> webSocketHandler.sendNotificationToCompany(companyId, notification));
+            System.out.println("NotificationService: Sent WebSocket notification to company: " + companyId);
         } catch (Exception ex) {
             System.out.println("NotificationService: Failed to send WebSocket notification: " + ex.getMessage());
         }
+    }
 
-        // 3. Resolve email and send email notification
-        String email = resolveCompanyEmail(event.getCompanyId());
-        System.out.println("NotificationService: ABOUT TO SEND EMAIL to " + email);
-        System.out.println("NotificationService: from = " + from);
+    /**
+     * Insert the notifications whose dedupe key is not stored yet, in one unordered bulk
+     * write of upserts that only set fields on insert. Two instances inserting the same
+     * key at once collide on the unique index, and the loser skips it.
+     * @return The notifications that were inserted, with their ids
+     */
+    private List<Notification> insertNew(List<Notification> notifications) {
+        List<Notification> keyed = notifications.stream().filter(n -> n.getDedupeKey() != null).toList();
+        List<Notification> inserted = new ArrayList<>(notificationRepository.saveAll(
+                notifications.stream().filter(n -> n.getDedupeKey() == null).toList()));
+        if (keyed.isEmpty()) {
+            return inserted;
+        }
 
-        if (from == null || from.isBlank()) {
-            System.out.println("NotificationService: SMTP not configured (SMTP_EMAIL missing). Skipping email send.");
-            return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        for (Notification notification : keyed) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(notification, document);
+            document.remove("_id");
+            bulk.upsert(new Query(Criteria.where("dedupeKey").is(notification.getDedupeKey())),
+                    Update.fromDocument(new Document("$setOnInsert", document)));
         }
 
+        BulkWriteResult result;
         try {
-            SimpleMailMessage mail = new SimpleMailMessage();
-            mail.setFrom(from);
-            mail.setTo(email);
-            mail.setSubject(notification.getSubject());   // <-- no ellipsis
-            mail.setText(notification.getMessage());      // <-- no ellipsis
-
-            mailSender.send(mail);
-            System.out.println("NotificationService: SENT EMAIL to " + email);
-        } catch (Exception ex) {
-            System.out.println("NotificationService: FAILED to send email: " + ex.getMessage());
-            ex.printStackTrace();
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+            result = e.getResult();
+        }
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            Notification notification = keyed.get(upsert.getIndex());
+            notification.setId(upsert.getId().asObjectId().getValue().toHexString());
+            inserted.add(notification);
+        }
+        return inserted;
+    }
+
+    /**
+     * @return applicantId:companyId:eventVersion, or null for matches without a version
+     */
+    public static String dedupeKey(ApplicantMatchedEvent event) {
+        if (event.getEventVersion() == null) {
+            return null;
+        }
+        return event.getApplicantId() + ":" + event.getCompanyId() + ":" + event.getEventVersion();
+    }
+
+    private EmailDeliveryStatus initialEmailStatus() {
+        return emailOutboxService.isEnabled() ? EmailDeliveryStatus.PENDING : EmailDeliveryStatus.SKIPPED;
+    }
+
+    // 3. Queue email notifications, sent asynchronously by the outbox workers
+    private void enqueueEmails(List<Notification> notifications) {
+        if (!emailOutboxService.isEnabled()) {
+            System.out.println("NotificationService: SMTP not configured (SMTP_EMAIL missing). Skipping email send.");
+            return;
         }
+        emailOutboxService.enqueue(notifications);
+        System.out.println("NotificationService: Queued " + notifications.size() + " email(s) in the outbox");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,279 @@
+package com.job.manager.notification.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A session whose sends never block the caller: frames are queued and written by the
+ * {@link SlowConsumerPolicy} sender pool, one flush at a time per session. When the queue
+ * grows past the buffer limit, its notification frames are replaced by one frame per
+ * subscription telling the client how many notifications it missed; when a single send
+ * is blocked past the time limit, the policy's sweep closes the session. Each queued
+ * frame's STOMP headers are decoded at most once, however often the queue collapses.
+ */
+@Slf4j
+class CollapsingWebSocketSession extends WebSocketSessionDecorator {
+
+    // Marks a frame that already stands for several notifications
+    static final String COLLAPSED_COUNT_HEADER = "collapsed-count";
+
+    private final SlowConsumerPolicy policy;
+
+    private final Queue<QueuedFrame> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedBytes = new AtomicInteger();
+    private final AtomicInteger queuedFrames = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Lock overflowLock = new ReentrantLock();
+
+    private volatile long sendStartTime;
+    private volatile boolean closing;
+
+    CollapsingWebSocketSession(WebSocketSession delegate, SlowConsumerPolicy policy) {
+        super(delegate);
+        this.policy = policy;
+    }
+
+    int queuedFrames() {
+        return queuedFrames.get();
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (closing) {
+            policy.dropped(1);
+            return;
+        }
+        enqueue(new QueuedFrame(message));
+
+        if (queuedBytes.get() > policy.sendBufferSizeLimit() && overflowLock.tryLock()) {
+            try {
+                collapse();
+            } finally {
+                overflowLock.unlock();
+            }
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * Close the session if one send has been blocked past the time limit. Called
+     * periodically by the policy, so a stuck session is closed even if no further frame
+     * is sent to it.
+     * @return True if the session was closed
+     */
+    boolean closeIfStuck() {
+        long start = sendStartTime;
+        long sendTime = start > 0 ? System.currentTimeMillis() - start : 0;
+        if (closing || sendTime <= policy.sendTimeLimitMs()) {
+            return false;
+        }
+        policy.dropped(discard());
+        policy.terminated(getId(), sendTime);
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Failed to close stuck WebSocket session {}: {}", getId(), e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Stop sending and drop everything still queued, e.g. once the session has closed.
+     * @return The number of frames dropped
+     */
+    int discard() {
+        closing = true;
+        int dropped = 0;
+        QueuedFrame frame;
+        while ((frame = queue.poll()) != null) {
+            release(frame);
+            dropped++;
+        }
+        return dropped;
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            policy.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        try {
+            QueuedFrame frame;
+            while (!closing && (frame = queue.poll()) != null) {
+                release(frame);
+                sendStartTime = System.currentTimeMillis();
+                try {
+                    getDelegate().sendMessage(frame.message);
+                } finally {
+                    sendStartTime = 0;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Also a send that exceeded the container's blocking send timeout
+            log.debug("Failed to send to WebSocket session {}: {}", getId(), e.getMessage());
+            policy.dropped(discard());
+            closeQuietly();
+        } finally {
+            flushScheduled.set(false);
+        }
+        // A frame queued after the last poll but before the flag was cleared
+        if (!closing && !queue.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Replace the queued notification frames of each subscription with one frame carrying
+     * their count. Other frames (receipts, errors, heartbeats) are kept as they are.
+     */
+    private void collapse() {
+        List<QueuedFrame> kept = new ArrayList<>();
+        Map<String, Collapsed> bySubscription = new LinkedHashMap<>();
+        int replaced = 0;
+
+        QueuedFrame frame;
+        while ((frame = queue.poll()) != null) {
+            release(frame);
+            StompHeaderAccessor headers = frame.notificationHeaders();
+            if (headers == null) {
+                kept.add(frame);
+                continue;
+            }
+            String count = headers.getFirstNativeHeader(COLLAPSED_COUNT_HEADER);
+            bySubscription.computeIfAbsent(headers.getSubscriptionId(), id -> new Collapsed()).add(
+                    headers, count != null ? Integer.parseInt(count) : 1);
+            replaced++;
+        }
+
+        kept.forEach(this::enqueue);
+        bySubscription.values().forEach(collapsed -> enqueue(collapsed.toFrame()));
+        // The collapsed frames themselves are not lost notifications
+        policy.collapsed(replaced - bySubscription.size());
+        log.debug("Collapsed {} queued notification frames of slow WebSocket session {}", replaced, getId());
+    }
+
+    private void closeQuietly() {
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Failed to close WebSocket session {}: {}", getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return The STOMP headers if the frame is a notification MESSAGE, otherwise null
+     */
+    private static StompHeaderAccessor notificationHeaders(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage text)) {
+            return null;
+        }
+        List<Message<byte[]>> frames = new StompDecoder().decode(ByteBuffer.wrap(text.asBytes()));
+        if (frames.size() != 1) {
+            return null;
+        }
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(frames.get(0));
+        String destination = headers.getDestination();
+        if (headers.getCommand() != StompCommand.MESSAGE || headers.getSubscriptionId() == null
+                || destination == null || !destination.startsWith(CompanySessionRegistry.COMPANY_DESTINATION_PREFIX)) {
+            return null;
+        }
+        return headers;
+    }
+
+    private void enqueue(QueuedFrame frame) {
+        queue.add(frame);
+        queuedBytes.addAndGet(frame.message.getPayloadLength());
+        queuedFrames.incrementAndGet();
+    }
+
+    private void release(QueuedFrame frame) {
+        queuedBytes.addAndGet(-frame.message.getPayloadLength());
+        queuedFrames.decrementAndGet();
+    }
+
+    /**
+     * A queued frame with its notification headers, decoded on the first collapse that
+     * sees it and reused by later ones.
+     */
+    private static final class QueuedFrame {
+
+        private final WebSocketMessage<?> message;
+        private StompHeaderAccessor headers;
+        private boolean decoded;
+
+        QueuedFrame(WebSocketMessage<?> message) {
+            this.message = message;
+        }
+
+        QueuedFrame(TextMessage message, StompHeaderAccessor headers) {
+            this.message = message;
+            this.headers = headers;
+            this.decoded = true;
+        }
+
+        // Only called under the session's overflow lock
+        StompHeaderAccessor notificationHeaders() {
+            if (!decoded) {
+                headers = CollapsingWebSocketSession.notificationHeaders(message);
+                decoded = true;
+            }
+            return headers;
+        }
+    }
+
+    /**
+     * The notifications of one subscription folded into a single frame, sent with the
+     * headers of the latest one.
+     */
+    private static final class Collapsed {
+
+        private StompHeaderAccessor latest;
+        private int count;
+
+        void add(StompHeaderAccessor headers, int notifications) {
+            latest = headers;
+            count += notifications;
+        }
+
+        QueuedFrame toFrame() {
+            latest.setNativeHeader(COLLAPSED_COUNT_HEADER, String.valueOf(count));
+            latest.setNativeHeader(StompHeaderAccessor.STOMP_MESSAGE_ID_HEADER, UUID.randomUUID().toString());
+            latest.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            String payload = "{\"subject\":\"" + count + " new notifications\","
+                    + "\"message\":\"" + count + " new notifications arrived while the connection was slow\","
+                    + "\"collapsed\":" + count + ",\"read\":false}";
+            Message<byte[]> message = MessageBuilder.createMessage(
+                    payload.getBytes(StandardCharsets.UTF_8), latest.getMessageHeaders());
+            // Wrapped again for the cache, since building the message left these headers immutable
+            return new QueuedFrame(new TextMessage(new StompEncoder().encode(message)), StompHeaderAccessor.wrap(message));
+        }
+    }
+}
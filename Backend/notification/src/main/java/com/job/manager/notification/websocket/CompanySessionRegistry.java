@@ -0,0 +1,95 @@
+package com.job.manager.notification.websocket;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which companies currently have a STOMP subscription to
+ * {@code /topic/notifications/{companyId}} on this instance, kept up to date from
+ * subscribe, unsubscribe and disconnect events. Pushes to companies without one are skipped.
+ */
+@Component
+public class CompanySessionRegistry {
+
+    static final String COMPANY_DESTINATION_PREFIX = "/topic/notifications/";
+
+    // companyId -> "sessionId:subscriptionId" of its subscriptions
+    private final Map<String, Set<String>> subscriptionsByCompany = new ConcurrentHashMap<>();
+    // sessionId -> subscriptionId -> companyId
+    private final Map<String, Map<String, String>> companiesBySession = new ConcurrentHashMap<>();
+
+    public CompanySessionRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder("notification.websocket.subscribed.companies", this, CompanySessionRegistry::subscribedCompanies)
+                .description("Companies with at least one subscribed WebSocket session on this instance")
+                .register(meterRegistry);
+    }
+
+    public boolean hasSubscribers(String companyId) {
+        Set<String> subscriptions = subscriptionsByCompany.get(companyId);
+        return subscriptions != null && !subscriptions.isEmpty();
+    }
+
+    public int subscribedCompanies() {
+        return subscriptionsByCompany.size();
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = headers.getDestination();
+        if (destination == null || !destination.startsWith(COMPANY_DESTINATION_PREFIX)) {
+            return;
+        }
+        String companyId = destination.substring(COMPANY_DESTINATION_PREFIX.length());
+        String sessionId = headers.getSessionId();
+        String subscriptionId = headers.getSubscriptionId();
+
+        companiesBySession.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, companyId);
+        subscriptionsByCompany.compute(companyId, (id, subscriptions) -> {
+            Set<String> updated = subscriptions != null ? subscriptions : ConcurrentHashMap.newKeySet();
+            updated.add(sessionId + ":" + subscriptionId);
+            return updated;
+        });
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = companiesBySession.get(headers.getSessionId());
+        if (subscriptions == null) {
+            return;
+        }
+        String companyId = subscriptions.remove(headers.getSubscriptionId());
+        if (companyId != null) {
+            remove(companyId, headers.getSessionId() + ":" + headers.getSubscriptionId());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = companiesBySession.remove(event.getSessionId());
+        if (subscriptions == null) {
+            return;
+        }
+        subscriptions.forEach((subscriptionId, companyId) ->
+                remove(companyId, event.getSessionId() + ":" + subscriptionId));
+    }
+
+    private void remove(String companyId, String subscription) {
+        // Drop the company once its last subscription is gone, atomically with concurrent subscribes
+        subscriptionsByCompany.computeIfPresent(companyId, (id, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+}
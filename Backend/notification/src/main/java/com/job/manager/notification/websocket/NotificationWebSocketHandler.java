@@ -10,21 +10,37 @@ import org.springframework.stereotype.Component;
 public class NotificationWebSocketHandler {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final CompanySessionRegistry companySessionRegistry;
 
     /**
-     * Send notification to a specific company via WebSocket
+     * @return Whether any session of the company is subscribed to its topic on this instance
+     */
+    public boolean hasSubscribers(String companyId) {
+        return companySessionRegistry.hasSubscribers(companyId);
+    }
+
+    /**
+     * Send notification to a specific company via WebSocket.
+     * A no-op when no session of the company is subscribed on this instance; otherwise the
+     * notification is serialized once and the broker sends that message to every subscriber.
      * @param companyId The company ID to send notification to
      * @param notification The notification object
+     * @return Whether the notification was pushed
      */
-    public void sendNotificationToCompany(String companyId, Notification notification) {
+    public boolean sendNotificationToCompany(String companyId, Notification notification) {
+        if (!companySessionRegistry.hasSubscribers(companyId)) {
+            return false;
+        }
         try {
             // Send to specific company topic: /topic/notifications/{companyId}
-            String destination = "/topic/notifications/" + companyId;
+            String destination = CompanySessionRegistry.COMPANY_DESTINATION_PREFIX + companyId;
             messagingTemplate.convertAndSend(destination, notification);
             System.out.println("WebSocket notification sent to company: " + companyId);
+            return true;
         } catch (Exception e) {
             System.out.println("Failed to send WebSocket notification: " + e.getMessage());
             e.printStackTrace();
+            return false;
         }
     }
 
@@ -0,0 +1,182 @@
+package com.job.manager.notification.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.NativeWebSocketSession;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps slow WebSocket clients from holding memory. Every session gets a
+ * {@link CollapsingWebSocketSession}: the broker hands frames off without waiting, a
+ * small pool of {@code notification.websocket.sender-threads} writes them to the socket,
+ * and a session whose queue exceeds {@code send-buffer-size-limit} bytes has its queued
+ * notifications collapsed into one "N new notifications" frame.
+ *
+ * A session stuck in one send for longer than {@code send-time-limit-ms} is closed by a
+ * sweep every {@code sweep-interval-ms}, on its own thread. The same limit is set as the
+ * container's blocking send timeout, so a stuck send fails and frees its sender thread
+ * instead of holding one of the pool's threads until the client goes away.
+ *
+ * <ul>
+ *   <li>{@code notification.websocket.sessions}: open sessions</li>
+ *   <li>{@code notification.websocket.queue.depth}: frames queued across all sessions</li>
+ *   <li>{@code notification.websocket.frames.collapsed} / {@code .frames.dropped}: frames
+ *       replaced by a collapsed frame, or discarded with a closing session</li>
+ *   <li>{@code notification.websocket.sessions.terminated}: sessions closed for being too slow</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class SlowConsumerPolicy {
+
+    // Tomcat's per-session bound on a blocking send, in milliseconds
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final int sendTimeLimitMs;
+    private final int sendBufferSizeLimit;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService sweeper;
+
+    private final Map<String, CollapsingWebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final Counter collapsed;
+    private final Counter dropped;
+    private final Counter terminated;
+
+    public SlowConsumerPolicy(
+            MeterRegistry meterRegistry,
+            @Value("${notification.websocket.send-time-limit-ms:10000}") int sendTimeLimitMs,
+            @Value("${notification.websocket.send-buffer-size-limit:65536}") int sendBufferSizeLimit,
+            @Value("${notification.websocket.sender-threads:4}") int senderThreads,
+            @Value("${notification.websocket.sweep-interval-ms:1000}") long sweepIntervalMs
+    ) {
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), r -> {
+            Thread thread = new Thread(r, "websocket-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "websocket-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::closeStuckSessions, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("notification.websocket.sessions", sessions, Map::size)
+                .description("Open notification WebSocket sessions")
+                .register(meterRegistry);
+        Gauge.builder("notification.websocket.queue.depth", this, SlowConsumerPolicy::queueDepth)
+                .description("Frames waiting to be sent across all sessions")
+                .register(meterRegistry);
+        this.collapsed = meterRegistry.counter("notification.websocket.frames.collapsed");
+        this.dropped = meterRegistry.counter("notification.websocket.frames.dropped");
+        this.terminated = meterRegistry.counter("notification.websocket.sessions.terminated");
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.shutdownNow();
+        senders.shutdown();
+    }
+
+    public int sendTimeLimitMs() {
+        return sendTimeLimitMs;
+    }
+
+    public int sendBufferSizeLimit() {
+        return sendBufferSizeLimit;
+    }
+
+    /**
+     * Decorator factory for the STOMP transport: wraps every new session before the
+     * STOMP handler sees it.
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                if (session instanceof NativeWebSocketSession nativeSession
+                        && nativeSession.getNativeSession() instanceof jakarta.websocket.Session standardSession) {
+                    standardSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT, (long) sendTimeLimitMs);
+                }
+                CollapsingWebSocketSession collapsing = new CollapsingWebSocketSession(session, SlowConsumerPolicy.this);
+                sessions.put(session.getId(), collapsing);
+                super.afterConnectionEstablished(collapsing);
+            }
+
+            @Override
+            public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+                super.handleMessage(current(session), message);
+            }
+
+            @Override
+            public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+                super.handleTransportError(current(session), exception);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                CollapsingWebSocketSession collapsing = sessions.remove(session.getId());
+                if (collapsing != null) {
+                    dropped(collapsing.discard());
+                }
+                super.afterConnectionClosed(collapsing != null ? collapsing : session, closeStatus);
+            }
+
+            private WebSocketSession current(WebSocketSession session) {
+                CollapsingWebSocketSession collapsing = sessions.get(session.getId());
+                return collapsing != null ? collapsing : session;
+            }
+        };
+    }
+
+    private void closeStuckSessions() {
+        try {
+            sessions.values().forEach(CollapsingWebSocketSession::closeIfStuck);
+        } catch (RuntimeException e) {
+            log.warn("Sweeping WebSocket sessions failed: {}", e.getMessage(), e);
+        }
+    }
+
+    void execute(Runnable flush) {
+        senders.execute(flush);
+    }
+
+    void collapsed(int frames) {
+        collapsed.increment(frames);
+    }
+
+    void dropped(int frames) {
+        dropped.increment(frames);
+    }
+
+    void terminated(String sessionId, long sendTimeMs) {
+        terminated.increment();
+        log.warn("Closing WebSocket session {}: one send has been blocked for {}ms", sessionId, sendTimeMs);
+    }
+
+    private int queueDepth() {
+        return sessions.values().stream().mapToInt(CollapsingWebSocketSession::queuedFrames).sum();
+    }
+}
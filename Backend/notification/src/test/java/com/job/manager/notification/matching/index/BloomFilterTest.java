@@ -0,0 +1,38 @@
+package com.job.manager.notification.matching.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsAnInsertedKeyAsAbsent() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            filter.put("applicant-" + i + ":d" + Integer.toHexString(i * 31) + ":company-" + (i % 97));
+        }
+        // Also past the expected insertions, where only the false-positive rate degrades
+        for (int i = 0; i < 20_000; i++) {
+            String key = "applicant-" + i + ":d" + Integer.toHexString(i * 31) + ":company-" + (i % 97);
+            assertTrue(filter.mightContain(key), key);
+        }
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("present-" + i);
+        }
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.02, "false-positive rate " + rate);
+    }
+}
@@ -0,0 +1,60 @@
+package com.job.manager.notification.matching.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SalaryIndexTest {
+
+    @Test
+    void scaleRoundsToCents() {
+        assertEquals(123_457L, SalaryIndex.scale(new BigDecimal("1234.565"), 0L));
+        assertEquals(-50L, SalaryIndex.scale(new BigDecimal("-0.5"), 0L));
+    }
+
+    @Test
+    void scaleReturnsFallbackWhenUnset() {
+        assertEquals(Long.MAX_VALUE, SalaryIndex.scale(null, Long.MAX_VALUE));
+    }
+
+    @Test
+    void scaleClampsSalariesBeyondLongRange() {
+        BigDecimal huge = new BigDecimal(Long.MAX_VALUE).multiply(BigDecimal.TEN);
+        assertEquals(Long.MAX_VALUE, SalaryIndex.scale(huge, 0L));
+        assertEquals(Long.MIN_VALUE, SalaryIndex.scale(huge.negate(), 0L));
+    }
+
+    @Test
+    void collectFindsExactlyTheOverlappingRanges() {
+        Random random = new Random(42);
+        CompiledProfile[] profiles = new CompiledProfile[500];
+        for (int i = 0; i < profiles.length; i++) {
+            long min = random.nextInt(10) == 0 ? 0L : random.nextInt(200_000);
+            long max = random.nextInt(10) == 0 ? Long.MAX_VALUE : min + random.nextInt(100_000);
+            profiles[i] = new CompiledProfile(null, "de", new int[0], 0, -1, min, max);
+        }
+        SalaryIndex index = SalaryIndex.of(profiles);
+
+        for (int query = 0; query < 200; query++) {
+            long min = random.nextInt(5) == 0 ? Long.MIN_VALUE : random.nextInt(300_000);
+            long max = random.nextInt(5) == 0 ? Long.MAX_VALUE : min + random.nextInt(50_000);
+
+            BitSet expected = new BitSet();
+            for (int i = 0; i < profiles.length; i++) {
+                if (profiles[i].salaryMin() <= max && profiles[i].salaryMax() >= min) {
+                    expected.set(i);
+                }
+            }
+            BitSet actual = new BitSet();
+            index.collect(min, max, actual);
+
+            assertEquals(expected, actual, "range [" + min + ", " + max + "]");
+            assertTrue(index.estimate(min, max) >= expected.cardinality());
+        }
+    }
+}
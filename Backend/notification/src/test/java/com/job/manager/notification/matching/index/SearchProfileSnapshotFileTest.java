@@ -0,0 +1,60 @@
+package com.job.manager.notification.matching.index;
+
+import com.job.manager.notification.matching.dto.CompanySearchProfileDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchProfileSnapshotFileTest {
+
+    @Test
+    void roundTripsProfilesAndOffsets() throws IOException {
+        CompanySearchProfileDto full = new CompanySearchProfileDto();
+        full.setCompanyId("company-1");
+        full.setCountry("Việt Nam");
+        full.setTechnicalTags(List.of("Java", "C#", "Java"));
+        full.setEmploymentStatus(Set.of("FULL_TIME"));
+        full.setHighestEducationDegree("MASTER");
+        full.setSalaryMin(new BigDecimal("1500.50"));
+        full.setSalaryMax(new BigDecimal("1E+4"));
+
+        // Every field null, including the collections
+        CompanySearchProfileDto empty = new CompanySearchProfileDto();
+
+        CompanySearchProfileDto shared = new CompanySearchProfileDto();
+        shared.setCompanyId("company-3");
+        shared.setCountry("Việt Nam");
+        shared.setTechnicalTags(List.of());
+        shared.setEmploymentStatus(Set.of());
+
+        Path path = Files.createTempFile("search-profiles", ".snapshot");
+        SearchProfileSnapshotFile.Contents written = new SearchProfileSnapshotFile.Contents(
+                "company-search-profiles", Instant.ofEpochMilli(1_700_000_000_123L),
+                Map.of(0, 42L, 3, 7L), List.of(full, empty, shared));
+        SearchProfileSnapshotFile.write(path, written);
+
+        SearchProfileSnapshotFile.Contents read = SearchProfileSnapshotFile.read(path);
+        assertEquals(written.topic(), read.topic());
+        assertEquals(written.writtenAt(), read.writtenAt());
+        assertEquals(written.offsets(), read.offsets());
+        assertEquals(written.profiles(), read.profiles());
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path path = Files.createTempFile("search-profiles", ".snapshot");
+        Files.writeString(path, "not a snapshot at all");
+
+        assertThrows(IOException.class, () -> SearchProfileSnapshotFile.read(path));
+    }
+}
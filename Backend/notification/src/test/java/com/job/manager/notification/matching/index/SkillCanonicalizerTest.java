@@ -0,0 +1,71 @@
+package com.job.manager.notification.matching.index;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SkillCanonicalizerTest {
+
+    @Test
+    void normalizesCaseAndPunctuationWithoutTable() {
+        SkillCanonicalizer canonicalizer = new SkillCanonicalizer();
+
+        assertEquals("nodejs", canonicalizer.canonicalize("Node.js"));
+        assertEquals("c++", canonicalizer.canonicalize("C++"));
+        assertEquals("c#", canonicalizer.canonicalize(" C# "));
+        assertNull(canonicalizer.canonicalize(" .- "));
+        assertNull(canonicalizer.canonicalize(null));
+    }
+
+    @Test
+    void mapsAliasesToTheirCanonicalKey() throws IOException {
+        SkillCanonicalizer canonicalizer = withTable(
+                "# canonical: alias, ...",
+                "javascript: js, ecmascript",
+                "csharp: c#, c sharp");
+
+        assertEquals("javascript", canonicalizer.canonicalize("JS"));
+        assertEquals("javascript", canonicalizer.canonicalize("Java Script"));
+        assertEquals("csharp", canonicalizer.canonicalize("C#"));
+        assertEquals("csharp", canonicalizer.canonicalize(canonicalizer.canonicalize("C Sharp")));
+        assertEquals("kotlin", canonicalizer.canonicalize("Kotlin"));
+    }
+
+    @Test
+    void canonicalizeAllKeepsFirstSeenOrderWithoutDuplicates() throws IOException {
+        SkillCanonicalizer canonicalizer = withTable("javascript: js");
+
+        assertEquals(List.of("javascript", "java"),
+                canonicalizer.canonicalizeAll(Arrays.asList("JS", "Java", "", "javascript", null)));
+        assertNull(canonicalizer.canonicalizeAll(null));
+    }
+
+    @Test
+    void keepsThePreviousTableWhenAnAliasIsAmbiguous() throws IOException {
+        Path table = Files.createTempFile("skill-synonyms", ".txt");
+        Files.writeString(table, "javascript: js\n");
+        SkillCanonicalizer canonicalizer = new SkillCanonicalizer(new DefaultResourceLoader(), table.toUri().toString());
+        long version = canonicalizer.version();
+
+        Files.writeString(table, "javascript: js\ntypescript: js\n");
+        table.toFile().setLastModified(table.toFile().lastModified() + 1000);
+        canonicalizer.reloadIfChanged();
+
+        assertEquals(version, canonicalizer.version());
+        assertEquals("javascript", canonicalizer.canonicalize("js"));
+    }
+
+    private static SkillCanonicalizer withTable(String... lines) throws IOException {
+        Path table = Files.createTempFile("skill-synonyms", ".txt");
+        Files.write(table, List.of(lines));
+        return new SkillCanonicalizer(new DefaultResourceLoader(), table.toUri().toString());
+    }
+}
@@ -0,0 +1,59 @@
+package com.job.manager.notification.matching.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankedMatchesTest {
+
+    @Test
+    void topKMatchesAFullSort() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            List<ScoredMatch> matches = new ArrayList<>();
+            int size = random.nextInt(120);
+            for (int i = 0; i < size; i++) {
+                // Few distinct scores, so ties are common
+                matches.add(new ScoredMatch("company-" + i, random.nextInt(10) / 10.0));
+            }
+            int k = 1 + random.nextInt(60);
+
+            List<ScoredMatch> sorted = new ArrayList<>(matches);
+            sorted.sort(ScoredMatch.BY_SCORE.reversed());
+            RankedMatches ranked = RankedMatches.of(matches, k);
+
+            int immediate = Math.min(k, size);
+            assertEquals(sorted.subList(0, immediate), ranked.immediate(), "round " + round);
+            assertEquals(new HashSet<>(sorted.subList(immediate, size)), new HashSet<>(ranked.deferred()),
+                    "round " + round);
+            assertEquals(size - immediate, ranked.deferred().size(), "round " + round);
+        }
+    }
+
+    @Test
+    void equalScoresRankBySmallerCompanyId() {
+        List<ScoredMatch> matches = List.of(
+                new ScoredMatch("c", 0.5), new ScoredMatch("a", 0.5), new ScoredMatch("b", 0.5));
+
+        RankedMatches ranked = RankedMatches.of(matches, 2);
+
+        assertEquals(List.of(new ScoredMatch("a", 0.5), new ScoredMatch("b", 0.5)), ranked.immediate());
+        assertEquals(List.of(new ScoredMatch("c", 0.5)), ranked.deferred());
+    }
+
+    @Test
+    void nonPositiveKKeepsEveryMatchImmediate() {
+        List<ScoredMatch> matches = List.of(new ScoredMatch("a", 0.1), new ScoredMatch("b", 0.9));
+
+        RankedMatches ranked = RankedMatches.of(matches, 0);
+
+        assertEquals(List.of(new ScoredMatch("b", 0.9), new ScoredMatch("a", 0.1)), ranked.immediate());
+        assertTrue(ranked.deferred().isEmpty());
+    }
+}
@@ -0,0 +1,109 @@
+package com.job.manager.notification.matching.service;
+
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import com.job.manager.notification.matching.dto.CompanySearchProfileDto;
+import com.job.manager.notification.matching.index.SearchProfileIndex;
+import com.job.manager.notification.matching.index.SkillCanonicalizer;
+import com.job.manager.notification.matching.index.TagDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatchingEngineTest {
+
+    // Spellings differ in case, whitespace and punctuation, which both paths must normalize alike
+    private static final String[] COUNTRIES = {"Germany", " germany ", "GERMANY", "France", "Vietnam", "", null};
+    private static final String[] TAGS = {"Java", "java", "Node.js", "nodejs", "C++", "C#", "Go", "Rust", "SQL", "React"};
+    private static final String[] STATUSES = {"FULL_TIME", "part-time", "Fresher", "INTERNSHIP", "CONTRACT"};
+    private static final String[] DEGREES = {"HIGH_SCHOOL", "bachelor", "Master", "PhD", "unknown", null};
+
+    private final SkillCanonicalizer skillCanonicalizer = new SkillCanonicalizer();
+    private final MatchingEngine matchingEngine = new MatchingEngine(skillCanonicalizer);
+
+    @Test
+    void indexedMatchingAgreesWithBruteForce() {
+        Random random = new Random(7);
+        List<CompanySearchProfileDto> profiles = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            profiles.add(randomProfile(random, "company-" + i));
+        }
+        SearchProfileIndex index = new SearchProfileIndex(new TagDictionary(skillCanonicalizer));
+        index.rebuild(profiles);
+
+        int matched = 0;
+        for (int i = 0; i < 1_000; i++) {
+            ApplicantCreatedEvent applicant = randomApplicant(random, "applicant-" + i);
+
+            Set<String> bruteForce = new HashSet<>(matchingEngine.findMatchingCompanyIds(applicant, profiles));
+            List<String> indexed = matchingEngine.findMatchingCompanyIds(applicant, index);
+
+            assertEquals(bruteForce, new HashSet<>(indexed), "applicant " + applicant);
+            assertEquals(indexed.size(), new HashSet<>(indexed).size(), "duplicate matches for " + applicant);
+            matched += bruteForce.size();
+        }
+        // Guard against a generator that never produces matches
+        assertTrue(matched > 1_000, "only " + matched + " matches");
+    }
+
+    @Test
+    void countryIsComparedAfterTrimmingAndLowercasing() {
+        CompanySearchProfileDto profile = new CompanySearchProfileDto();
+        profile.setCompanyId("company");
+        profile.setCountry("Germany");
+        profile.setTechnicalTags(List.of("Java"));
+
+        ApplicantCreatedEvent applicant = new ApplicantCreatedEvent();
+        applicant.setApplicantId("applicant");
+        applicant.setCountry("  germany ");
+        applicant.setSkills(List.of("java"));
+
+        assertTrue(matchingEngine.matches(applicant, profile));
+    }
+
+    private static CompanySearchProfileDto randomProfile(Random random, String companyId) {
+        CompanySearchProfileDto profile = new CompanySearchProfileDto();
+        profile.setCompanyId(companyId);
+        profile.setCountry(pick(random, COUNTRIES));
+        profile.setTechnicalTags(random.nextInt(20) == 0 ? null : pickSome(random, TAGS, 4));
+        profile.setEmploymentStatus(random.nextBoolean() ? null : new HashSet<>(pickSome(random, STATUSES, 2)));
+        profile.setHighestEducationDegree(pick(random, DEGREES));
+        int min = random.nextInt(4) == 0 ? -1 : random.nextInt(5_000);
+        profile.setSalaryMin(min < 0 ? null : BigDecimal.valueOf(min));
+        profile.setSalaryMax(random.nextInt(4) == 0 ? null : BigDecimal.valueOf(Math.max(min, 0) + random.nextInt(5_000)));
+        return profile;
+    }
+
+    private static ApplicantCreatedEvent randomApplicant(Random random, String applicantId) {
+        ApplicantCreatedEvent applicant = new ApplicantCreatedEvent();
+        applicant.setApplicantId(applicantId);
+        applicant.setCountry(pick(random, COUNTRIES));
+        applicant.setSkills(random.nextInt(20) == 0 ? null : pickSome(random, TAGS, 3));
+        applicant.setEmploymentTypes(random.nextBoolean() ? null : new HashSet<>(pickSome(random, STATUSES, 2)));
+        applicant.setHighestEducationDegree(pick(random, DEGREES));
+        int min = random.nextInt(3) == 0 ? -1 : random.nextInt(8_000);
+        applicant.setMinSalary(min < 0 ? null : BigDecimal.valueOf(min));
+        applicant.setMaxSalary(random.nextInt(3) == 0 ? null : BigDecimal.valueOf(Math.max(min, 0) + random.nextInt(3_000)));
+        return applicant;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static List<String> pickSome(Random random, String[] values, int max) {
+        List<String> picked = new ArrayList<>();
+        int count = random.nextInt(max + 1);
+        for (int i = 0; i < count; i++) {
+            picked.add(pick(random, values));
+        }
+        return picked;
+    }
+}
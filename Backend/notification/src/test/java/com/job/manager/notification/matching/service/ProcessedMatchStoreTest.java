@@ -0,0 +1,67 @@
+package com.job.manager.notification.matching.service;
+
+import com.job.manager.notification.matching.dto.ApplicantCreatedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProcessedMatchStoreTest {
+
+    @Test
+    void producerVersionIsUsedWhenSet() {
+        ApplicantCreatedEvent event = applicant();
+        event.setEventVersion(42L);
+
+        assertEquals("42", ProcessedMatchStore.eventVersion(event));
+    }
+
+    @Test
+    void digestIgnoresOrderAndSalaryScale() {
+        ApplicantCreatedEvent first = applicant();
+        ApplicantCreatedEvent second = applicant();
+        second.setSkills(List.of("react", "java"));
+        second.setEmploymentTypes(new LinkedHashSet<>(List.of("PART_TIME", "FULL_TIME")));
+        second.setMinSalary(new BigDecimal("3000.00"));
+
+        String version = ProcessedMatchStore.eventVersion(first);
+        assertEquals(version, ProcessedMatchStore.eventVersion(second));
+        assertTrue(version.matches("d[0-9a-f]{32}"), version);
+    }
+
+    @Test
+    void digestChangesWithAnyMatchingField() {
+        String version = ProcessedMatchStore.eventVersion(applicant());
+
+        ApplicantCreatedEvent country = applicant();
+        country.setCountry("France");
+        ApplicantCreatedEvent skills = applicant();
+        skills.setSkills(List.of("java"));
+        ApplicantCreatedEvent salary = applicant();
+        salary.setMaxSalary(new BigDecimal("5001"));
+        ApplicantCreatedEvent degree = applicant();
+        degree.setHighestEducationDegree(null);
+
+        assertNotEquals(version, ProcessedMatchStore.eventVersion(country));
+        assertNotEquals(version, ProcessedMatchStore.eventVersion(skills));
+        assertNotEquals(version, ProcessedMatchStore.eventVersion(salary));
+        assertNotEquals(version, ProcessedMatchStore.eventVersion(degree));
+    }
+
+    private static ApplicantCreatedEvent applicant() {
+        ApplicantCreatedEvent event = new ApplicantCreatedEvent();
+        event.setApplicantId("applicant-1");
+        event.setCountry("Germany");
+        event.setSkills(List.of("java", "react"));
+        event.setEmploymentTypes(new LinkedHashSet<>(List.of("FULL_TIME", "PART_TIME")));
+        event.setHighestEducationDegree("BACHELOR");
+        event.setMinSalary(new BigDecimal("3000"));
+        event.setMaxSalary(new BigDecimal("5000"));
+        return event;
+    }
+}
@@ -0,0 +1,99 @@
+package com.job.manager.notification.matching.service;
+
+import com.job.manager.notification.dto.SubscriptionEventDTO;
+import com.job.manager.notification.model.CompanySubscriptionStatus;
+import com.job.manager.notification.repository.CompanySubscriptionStatusRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubscriptionStatusTrackerTest {
+
+    private final Map<String, CompanySubscriptionStatus> stored = new HashMap<>();
+    private final SubscriptionStatusTracker tracker =
+            new SubscriptionStatusTracker(repository(stored), null, null);
+
+    @Test
+    void premiumLifecycleEventsActivateAndEvictTheCompany() {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Premium subscriptions are created pending until paid for
+        assertFalse(tracker.apply(event("CREATED", "PENDING", now)));
+        assertFalse(tracker.isActive("company-1"));
+
+        assertTrue(tracker.apply(event("ACTIVATED", "ACTIVE", now.plusSeconds(1))));
+        assertTrue(tracker.isActive("company-1"));
+        assertTrue(stored.get("company-1").isActive());
+
+        assertFalse(tracker.apply(event("EXPIRING_SOON", "ACTIVE", now.plusSeconds(2))));
+        assertTrue(tracker.isActive("company-1"));
+
+        assertTrue(tracker.apply(event("EXPIRED", "EXPIRED", now.plusSeconds(3))));
+        assertFalse(tracker.isActive("company-1"));
+        assertFalse(stored.get("company-1").isActive());
+        assertEquals("EXPIRED", stored.get("company-1").getLastEventType());
+    }
+
+    @Test
+    void cancellingASeededCompanyEvictsIt() {
+        stored.put("company-1", CompanySubscriptionStatus.builder()
+                .companyId("company-1").active(true).lastEventType("SEEDED").build());
+        tracker.load();
+        assertTrue(tracker.isActive("company-1"));
+        long version = tracker.version();
+
+        assertTrue(tracker.apply(event("CANCELLED", "CANCELLED", LocalDateTime.now())));
+
+        assertFalse(tracker.isActive("company-1"));
+        assertEquals(version + 1, tracker.version());
+    }
+
+    @Test
+    void olderEventsDoNotUndoNewerOnes() {
+        LocalDateTime now = LocalDateTime.now();
+        tracker.apply(event("ACTIVATED", "ACTIVE", now));
+
+        assertFalse(tracker.apply(event("EXPIRED", "EXPIRED", now.minusMinutes(1))));
+        assertTrue(tracker.isActive("company-1"));
+    }
+
+    /**
+     * Shaped like the subscription service's events: the producer sets the type.
+     */
+    private static SubscriptionEventDTO event(String eventType, String status, LocalDateTime timestamp) {
+        SubscriptionEventDTO event = new SubscriptionEventDTO();
+        event.setSubscriptionId("subscription-1");
+        event.setCompanyId("company-1");
+        event.setPlanType("PREMIUM");
+        event.setStatus(status);
+        event.setStartDate(timestamp);
+        event.setExpiryDate(timestamp.plusMonths(1));
+        event.setTimestamp(timestamp);
+        event.setEventType(eventType);
+        return event;
+    }
+
+    private static CompanySubscriptionStatusRepository repository(Map<String, CompanySubscriptionStatus> stored) {
+        return (CompanySubscriptionStatusRepository) Proxy.newProxyInstance(
+                CompanySubscriptionStatusRepository.class.getClassLoader(),
+                new Class<?>[]{CompanySubscriptionStatusRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByActiveTrue" -> stored.values().stream().filter(CompanySubscriptionStatus::isActive).toList();
+                    case "findById" -> Optional.ofNullable(stored.get((String) args[0]));
+                    case "save" -> {
+                        CompanySubscriptionStatus status = (CompanySubscriptionStatus) args[0];
+                        stored.put(status.getCompanyId(), status);
+                        yield status;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
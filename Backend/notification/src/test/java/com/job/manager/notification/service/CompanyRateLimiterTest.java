@@ -0,0 +1,68 @@
+package com.job.manager.notification.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompanyRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void allowsTheBurstThenThrottles() {
+        CompanyRateLimiter limiter = new CompanyRateLimiter(meterRegistry, true, 60, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("company"), "notification " + i);
+        }
+        assertFalse(limiter.tryAcquire("company"));
+        assertEquals(1.0, meterRegistry.counter("notification.throttled").count());
+    }
+
+    @Test
+    void companiesHaveSeparateBuckets() {
+        CompanyRateLimiter limiter = new CompanyRateLimiter(meterRegistry, true, 60, 1);
+
+        assertTrue(limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("b"));
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() throws InterruptedException {
+        // 60000 a minute: one token every millisecond
+        CompanyRateLimiter limiter = new CompanyRateLimiter(meterRegistry, true, 60_000, 1);
+
+        assertTrue(limiter.tryAcquire("company"));
+        assertFalse(limiter.tryAcquire("company"));
+        Thread.sleep(5);
+        assertTrue(limiter.tryAcquire("company"));
+    }
+
+    @Test
+    void evictedBucketsStartFull() throws InterruptedException {
+        CompanyRateLimiter limiter = new CompanyRateLimiter(meterRegistry, true, 60_000, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("company"));
+        }
+        Thread.sleep(10);
+        limiter.evictIdle();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("company"), "notification " + i);
+        }
+    }
+
+    @Test
+    void disabledNeverThrottles() {
+        CompanyRateLimiter limiter = new CompanyRateLimiter(meterRegistry, false, 1, 1);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire("company"));
+        }
+        assertEquals(0.0, meterRegistry.counter("notification.throttled").count());
+    }
+}
@@ -1,10 +1,12 @@
 package com.job.manager.subscription.config;
 
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
@@ -33,4 +35,17 @@ public class KafkaConfig {
             ProducerFactory<String, Object> producerFactory) {
         return new KafkaTemplate<>(producerFactory);
     }
+
+    // Compacted: the latest record per companyId is the current search profile
+    @Bean
+    public NewTopic companySearchProfilesTopic(
+            @Value("${kafka.topics.company-search-profiles:company-search-profiles}") String topic,
+            @Value("${kafka.search-profiles.partitions:3}") int partitions,
+            @Value("${kafka.search-profiles.replicas:1}") int replicas) {
+        return TopicBuilder.name(topic)
+                .partitions(partitions)
+                .replicas(replicas)
+                .compact()
+                .build();
+    }
 }
@@ -26,6 +26,15 @@ public class CompanySearchProfileController {
         return ResponseEntity.ok().build();
     }
 
+    @DeleteMapping("/search-profile")
+    public ResponseEntity<Void> deleteSearchProfile(
+            @CurrentUser AuthenticatedUser user
+    ) {
+        String companyId = user.getUserId();
+        profileService.deleteProfile(companyId);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/search-profile")
     public ResponseEntity<CompanySearchProfileResponse> getSearchProfile(
             @CurrentUser AuthenticatedUser user
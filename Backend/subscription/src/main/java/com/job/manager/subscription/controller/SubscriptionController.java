@@ -68,6 +68,13 @@ public class SubscriptionController {
         }
     }
 
+    // Internal endpoint for service-to-service calls (no authentication required)
+    @GetMapping("/internal/premium-active-companies")
+    public ResponseEntity<List<String>> getPremiumActiveCompanyIds() {
+        log.info("Internal call - Getting premium-active companies");
+        return ResponseEntity.ok(subscriptionService.getPremiumActiveCompanyIds());
+    }
+
     // Internal endpoint for service-to-service calls (no authentication required)
     @GetMapping("/internal/{subscriptionId}")
     public ResponseEntity<SubscriptionResponseDTO> getSubscriptionByIdInternal(
@@ -0,0 +1,18 @@
+package com.job.manager.subscription.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompanySearchProfileEventDTO {
+
+    private String companyId;
+    private String eventType; // "UPSERTED", "DELETED"
+    private CompanySearchProfileResponse profile; // null for DELETED
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,61 @@
+package com.job.manager.subscription.kafka;
+
+import com.job.manager.subscription.dto.CompanySearchProfileEventDTO;
+import com.job.manager.subscription.dto.CompanySearchProfileResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes search profile changes keyed by companyId on a compacted topic,
+ * so consumers can rebuild the full profile set by replaying it. A deletion is a
+ * null-value tombstone, so compaction eventually drops the company's key.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CompanySearchProfileEventProducer {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${kafka.topics.company-search-profiles:company-search-profiles}")
+    private String searchProfilesTopic;
+
+    @Value("${kafka.search-profiles.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    public void sendProfileUpsertedEvent(CompanySearchProfileResponse profile) {
+        CompanySearchProfileEventDTO event = new CompanySearchProfileEventDTO(
+                profile.getCompanyId(), "UPSERTED", profile, LocalDateTime.now());
+        log.info("Sending search profile upserted event for company {}", profile.getCompanyId());
+        publish(profile.getCompanyId(), event);
+    }
+
+    public void sendProfileDeletedEvent(String companyId) {
+        log.info("Sending search profile tombstone for company {}", companyId);
+        publish(companyId, null);
+    }
+
+    /**
+     * Waits for the broker's acknowledgement, so a failed send fails the request
+     * instead of leaving the notification replica silently behind Mongo.
+     */
+    private void publish(String companyId, CompanySearchProfileEventDTO event) {
+        try {
+            kafkaTemplate.send(searchProfilesTopic, companyId, event).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted publishing search profile change for company " + companyId, e);
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Publishing search profile change for company {} failed: {}", companyId, e.getMessage());
+            throw new IllegalStateException("Could not publish search profile change for company " + companyId, e);
+        }
+    }
+}
@@ -28,21 +28,25 @@ public class SubscriptionEventProducer {
 
     public void sendSubscriptionCreatedEvent(SubscriptionEventDTO event) {
         log.info("Sending subscription created event: {}", event);
+        event.setEventType("CREATED");
         kafkaTemplate.send(subscriptionCreatedTopic, event.getCompanyId(), event);
     }
 
     public void sendSubscriptionActivatedEvent(SubscriptionEventDTO event) {
         log.info("Sending subscription activated event: {}", event);
+        event.setEventType("ACTIVATED");
         kafkaTemplate.send(subscriptionActivatedTopic, event.getCompanyId(), event);
     }
 
     public void sendSubscriptionExpiredEvent(SubscriptionEventDTO event) {
         log.info("Sending subscription expired event: {}", event);
+        event.setEventType("EXPIRED");
         kafkaTemplate.send(subscriptionExpiredTopic, event.getCompanyId(), event);
     }
 
     public void sendSubscriptionCancelledEvent(SubscriptionEventDTO event) {
         log.info("Sending subscription cancelled event: {}", event);
+        event.setEventType("CANCELLED");
         kafkaTemplate.send(subscriptionCancelledTopic, event.getCompanyId(), event);
     }
 
@@ -17,6 +17,8 @@ public interface SubscriptionRepository extends MongoRepository<Subscription, St
     List<Subscription> findByStatus(SubscriptionStatus status);
     
     List<Subscription> findByExpiryDateBefore(LocalDateTime date);
+
+    List<Subscription> findByStatusAndExpiryDateAfter(SubscriptionStatus status, LocalDateTime date);
     
     List<Subscription> findByCompanyIdAndStatus(String companyId, SubscriptionStatus status);
 }
@@ -2,6 +2,7 @@ package com.job.manager.subscription.service;
 
 import com.job.manager.subscription.dto.CompanySearchProfileRequest;
 import com.job.manager.subscription.dto.CompanySearchProfileResponse;
+import com.job.manager.subscription.kafka.CompanySearchProfileEventProducer;
 import com.job.manager.subscription.model.CompanySearchProfile;
 import com.job.manager.subscription.repository.CompanySearchProfileRepository;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +16,7 @@ public class CompanySearchProfileService {
 
     private final CompanySearchProfileRepository profileRepository;
     private final SubscriptionService subscriptionService; // assume you have this
+    private final CompanySearchProfileEventProducer profileEventProducer;
 
     public void upsertProfile(String companyId, CompanySearchProfileRequest request) {
         // 1. Ensure company is premium
@@ -34,7 +36,20 @@ public class CompanySearchProfileService {
         profile.setSalaryMax(request.getSalaryMax());
         profile.setHighestEducationDegree(request.getHighestEducationDegree());
 
-        profileRepository.save(profile);
+        CompanySearchProfile saved = profileRepository.save(profile);
+
+        // 3. Publish change so the notification service can update its replica.
+        // Throws if the broker does not acknowledge; a retried upsert republishes it.
+        profileEventProducer.sendProfileUpsertedEvent(toResponse(saved));
+    }
+
+    public void deleteProfile(String companyId) {
+        CompanySearchProfile profile = profileRepository.findByCompanyId(companyId)
+                .orElseThrow(() -> new IllegalStateException("Search profile not found for company " + companyId));
+
+        // Tombstone first: if it fails the profile is still here, so a retried delete resends it
+        profileEventProducer.sendProfileDeletedEvent(companyId);
+        profileRepository.delete(profile);
     }
 
     // For a single company (used by GET /search-profile)
@@ -42,30 +57,25 @@ public class CompanySearchProfileService {
         CompanySearchProfile profile = profileRepository.findByCompanyId(companyId)
                 .orElseThrow(() -> new IllegalStateException("Search profile not found for company " + companyId));
 
-        return CompanySearchProfileResponse.builder()
-                .companyId(profile.getCompanyId())
-                .technicalTags(profile.getTechnicalTags())
-                .employmentStatus(profile.getEmploymentStatus())
-                .country(profile.getCountry())
-                .salaryMin(profile.getSalaryMin())
-                .salaryMax(profile.getSalaryMax())
-                .highestEducationDegree(profile.getHighestEducationDegree())
-                .build();
+        return toResponse(profile);
     }
 
     // For matching service: return ALL company profiles
     public List<CompanySearchProfileResponse> getAllProfiles() {
         return profileRepository.findAll().stream()
-                .map(p -> CompanySearchProfileResponse.builder()
-                        .companyId(p.getCompanyId())   // assumes field exists in entity
-                        .technicalTags(p.getTechnicalTags())
-                        .employmentStatus(p.getEmploymentStatus())
-                        .country(p.getCountry())
-                        .salaryMin(p.getSalaryMin())
-                        .salaryMax(p.getSalaryMax())
-                        .highestEducationDegree(p.getHighestEducationDegree())
-                        .build()
-                )
+                .map(this::toResponse)
                 .toList();
     }
+
+    private CompanySearchProfileResponse toResponse(CompanySearchProfile p) {
+        return CompanySearchProfileResponse.builder()
+                .companyId(p.getCompanyId())
+                .technicalTags(p.getTechnicalTags())
+                .employmentStatus(p.getEmploymentStatus())
+                .country(p.getCountry())
+                .salaryMin(p.getSalaryMin())
+                .salaryMax(p.getSalaryMax())
+                .highestEducationDegree(p.getHighestEducationDegree())
+                .build();
+    }
 }
\ No newline at end of file
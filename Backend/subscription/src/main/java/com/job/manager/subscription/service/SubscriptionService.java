@@ -33,6 +33,18 @@ public class SubscriptionService {
                 .orElse(false);
     }
 
+    /**
+     * Companies for which {@link #isPremiumActive(String)} holds right now.
+     */
+    public List<String> getPremiumActiveCompanyIds() {
+        return subscriptionRepository
+                .findByStatusAndExpiryDateAfter(Subscription.SubscriptionStatus.ACTIVE, LocalDateTime.now())
+                .stream()
+                .map(Subscription::getCompanyId)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
     public SubscriptionResponseDTO createSubscription(SubscriptionCreateDTO dto) {
         log.info("Creating subscription for company: {}", dto.getCompanyId());
 